@@ -0,0 +1,162 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves access logging off the request threads. Requests only enqueue an event into a
+ * lock-free ring buffer; a dedicated thread drains it in batches and writes to the "access"
+ * logger. When the buffer is full the event is dropped (DROP) or the request waits up to
+ * max-wait for space before dropping it (WAIT); drops are counted in app.accesslog.dropped.
+ */
+@Component
+public class AccessLogPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogPipeline.class);
+    private static final Logger accessLogger = LoggerFactory.getLogger("access");
+
+    public enum OverflowPolicy { DROP, WAIT }
+
+    private final AccessLogRingBuffer<AccessLogEvent> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final long maxWaitNanos;
+    private final int batchSize;
+    private final long idleParkNanos;
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    @Autowired
+    public AccessLogPipeline(MeterRegistry meterRegistry,
+                             @Value("${app.access-log.buffer-size:8192}") int bufferSize,
+                             @Value("${app.access-log.batch-size:256}") int batchSize,
+                             @Value("${app.access-log.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                             @Value("${app.access-log.max-wait:5ms}") Duration maxWait,
+                             @Value("${app.access-log.idle-wait:10ms}") Duration idleWait) {
+        this.buffer = new AccessLogRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.idleParkNanos = idleWait.toNanos();
+
+        this.writtenCounter = Counter.builder("app.accesslog.written")
+                .description("Access log events written")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("app.accesslog.dropped")
+                .description("Access log events dropped because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("app.accesslog.queue.size", buffer, AccessLogRingBuffer::size)
+                .description("Access log events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "access-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public void publish(AccessLogEvent event) {
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.WAIT) {
+            long deadline = System.nanoTime() + maxWaitNanos;
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(50_000);
+                if (buffer.offer(event)) {
+                    return;
+                }
+            }
+        }
+        droppedCounter.increment();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                if (buffer.drain(this::write, batchSize) == 0) {
+                    LockSupport.parkNanos(idleParkNanos);
+                }
+            } catch (Exception e) {
+                logger.error("Access log writer failed", e);
+            }
+        }
+        // Flush what is left on shutdown
+        while (buffer.drain(this::write, batchSize) > 0) {
+            // keep draining
+        }
+    }
+
+    private void write(AccessLogEvent event) {
+        // The events are written on this thread, so carry the request's MDC fields over
+        MDC.put("requestId", event.getRequestId());
+        MDC.put("clientIp", event.getClientIp());
+        if (event.getUserId() != null) {
+            MDC.put("userId", event.getUserId());
+        }
+        try {
+            accessLogger.info("{} {} {} {}ms", event.getMethod(), event.getUri(), event.getStatus(),
+                    event.getDurationMillis());
+            writtenCounter.increment();
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    public static class AccessLogEvent {
+
+        private final String requestId;
+        private final String method;
+        private final String uri;
+        private final int status;
+        private final long durationMillis;
+        private final String clientIp;
+        private final String userId;
+
+        public AccessLogEvent(String requestId, String method, String uri, int status, long durationMillis,
+                              String clientIp, String userId) {
+            this.requestId = requestId;
+            this.method = method;
+            this.uri = uri;
+            this.status = status;
+            this.durationMillis = durationMillis;
+            this.clientIp = clientIp;
+            this.userId = userId;
+        }
+
+        // Getters
+        public String getRequestId() { return requestId; }
+        public String getMethod() { return method; }
+        public String getUri() { return uri; }
+        public int getStatus() { return status; }
+        public long getDurationMillis() { return durationMillis; }
+        public String getClientIp() { return clientIp; }
+        public String getUserId() { return userId; }
+    }
+}
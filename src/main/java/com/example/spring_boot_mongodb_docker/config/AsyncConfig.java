@@ -0,0 +1,11 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// @Async methods run on Spring Boot's applicationTaskExecutor: a bounded thread pool, or a
+// virtual thread per task when spring.threads.virtual.enabled=true
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,13 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+/**
+ * Token buckets for RateLimitingFilter, one per key.
+ */
+public interface BucketStore {
+
+    /**
+     * Takes one token from the bucket for the key, creating a full bucket for the limit if
+     * there is none yet. Returns false if the bucket is empty.
+     */
+    boolean tryConsume(String key, RateLimitProperties.Limit limit);
+}
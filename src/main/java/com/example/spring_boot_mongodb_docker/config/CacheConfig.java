@@ -1,11 +1,17 @@
 package com.example.spring_boot_mongodb_docker.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
@@ -15,16 +21,50 @@ import java.time.Duration;
 @EnableCaching
 public class CacheConfig {
 
+    @Value("${app.cache.near-cache.enabled:true}")
+    private boolean nearCacheEnabled;
+
+    @Value("${app.cache.near-cache.max-size:10000}")
+    private long nearCacheMaxSize;
+
+    @Value("${app.cache.near-cache.ttl:60s}")
+    private Duration nearCacheTtl;
+
+    @Value("${app.cache.invalidation-channel:cache:invalidation}")
+    private String invalidationChannel;
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     MeterRegistry meterRegistry) {
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
                         new GenericJackson2JsonRedisSerializer()));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(cacheConfig)
                 .build();
+
+        if (!nearCacheEnabled) {
+            return redisCacheManager;
+        }
+
+        // Not a bean of its own, so initialise it here
+        redisCacheManager.afterPropertiesSet();
+
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(
+                redisCacheManager, redisTemplate, meterRegistry,
+                invalidationChannel, nearCacheMaxSize, nearCacheTtl);
+        listenerContainer.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+        return cacheManager;
     }
 }
-
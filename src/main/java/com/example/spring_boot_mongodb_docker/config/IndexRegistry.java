@@ -0,0 +1,149 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import com.example.spring_boot_mongodb_docker.model.FileBlob;
+import com.example.spring_boot_mongodb_docker.model.FileDocument;
+import com.example.spring_boot_mongodb_docker.model.Item;
+import com.example.spring_boot_mongodb_docker.model.OutboxEmail;
+import com.example.spring_boot_mongodb_docker.model.PasswordResetToken;
+import com.example.spring_boot_mongodb_docker.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All MongoDB indexes the application relies on, declared in one place.
+ *
+ * The indexes are created on a background thread once the application is ready, so a large
+ * collection being indexed does not hold up startup; creating an index that already exists
+ * is a no-op. IndexesEndpoint reports declared indexes that are missing and existing indexes
+ * that are never used.
+ */
+@Component
+public class IndexRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexRegistry.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<Class<?>, List<IndexDefinition>> indexes = new LinkedHashMap<>();
+
+    @Value("${app.mongo.indexes.create-on-startup:true}")
+    private boolean createOnStartup;
+
+    @Autowired
+    public IndexRegistry(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+
+        // findByUsername, existsByUsername, deleteByUsername and findByEmail
+        register(User.class,
+                new Index().on("username", Sort.Direction.ASC).unique().named("username_unique"),
+                // Users registered without an email don't collide
+                new Index().on("email", Sort.Direction.ASC).unique().sparse().named("email_unique"));
+
+        // Redemption by token hash, deleteByUsername, and removal of expired tokens by MongoDB itself
+        register(PasswordResetToken.class,
+                new Index().on("token", Sort.Direction.ASC).unique().named("token_unique"),
+                new Index().on("username", Sort.Direction.ASC).named("username"),
+                new Index().on("expiryDate", Sort.Direction.ASC).expire(Duration.ZERO).named("expiryDate_ttl"));
+
+        // Sort options of GET /api/items; _id is the tie-breaker of keyset pagination. Each index
+        // also serves the descending sort by walking it backwards.
+        register(Item.class,
+                itemSortIndex("name"),
+                itemSortIndex("description"),
+                itemSortIndex("price"),
+                itemSortIndex("quantity"),
+                // GET /api/items/search?mode=text; a match in the name weighs more than one in the description
+                TextIndexDefinition.builder()
+                        .onField("name", 3F)
+                        .onField("description")
+                        .named("name_description_text")
+                        .build(),
+                // GET /api/items/search?mode=prefix, an anchored range scan ordered like the results
+                itemSortIndex("nameLower"));
+
+        // File metadata listing: newest first, optionally filtered by uploader
+        register(FileDocument.class,
+                new Index().on("uploadDate", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("uploadDate_id"),
+                new Index().on("uploadedBy", Sort.Direction.ASC).on("uploadDate", Sort.Direction.DESC)
+                        .on("_id", Sort.Direction.DESC).named("uploadedBy_uploadDate_id"));
+
+        // Sweep of unreferenced blobs
+        register(FileBlob.class,
+                new Index().on("refCount", Sort.Direction.ASC).named("refCount"));
+
+        // Outbox workers claiming due emails, oldest first; sent emails are removed by MongoDB
+        register(OutboxEmail.class,
+                new Index().on("status", Sort.Direction.ASC).on("nextAttemptAt", Sort.Direction.ASC)
+                        .named("status_nextAttemptAt"),
+                new Index().on("claimId", Sort.Direction.ASC).sparse().named("claimId"),
+                new Index().on("expireAt", Sort.Direction.ASC).expire(Duration.ZERO).named("expireAt_ttl"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexesInBackground() {
+        if (!createOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(this::ensureIndexes, "index-builder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Creates every declared index that does not exist yet. Returns the number of failures.
+     */
+    public int ensureIndexes() {
+        int failed = 0;
+        for (Map.Entry<Class<?>, List<IndexDefinition>> entry : indexes.entrySet()) {
+            String collection = mongoTemplate.getCollectionName(entry.getKey());
+            for (IndexDefinition index : entry.getValue()) {
+                try {
+                    mongoTemplate.indexOps(entry.getKey()).ensureIndex(index);
+                } catch (Exception e) {
+                    // e.g. duplicates in existing data for a unique index; reported as missing
+                    logger.error("Failed to create index {} on {}", index.getIndexOptions().get("name"), collection, e);
+                    failed++;
+                }
+            }
+        }
+        logger.info("Index creation finished with {} failures", failed);
+        return failed;
+    }
+
+    /**
+     * Declared index names by collection name.
+     */
+    public Map<String, List<String>> getDeclaredIndexNames() {
+        Map<String, List<String>> names = new LinkedHashMap<>();
+        indexes.forEach((type, declared) -> {
+            List<String> indexNames = new ArrayList<>();
+            declared.forEach(index -> indexNames.add((String) index.getIndexOptions().get("name")));
+            names.put(mongoTemplate.getCollectionName(type), Collections.unmodifiableList(indexNames));
+        });
+        return names;
+    }
+
+    private void register(Class<?> type, IndexDefinition... declared) {
+        indexes.computeIfAbsent(type, t -> new ArrayList<>()).addAll(List.of(declared));
+    }
+
+    private static Index itemSortIndex(String field) {
+        return new Index().on(field, Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named(field + "_id");
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/indexes: per collection, the declared indexes that are missing, the existing
+ * indexes that are not declared, and the indexes without a single use since the server last
+ * started (from $indexStats).
+ */
+@Component
+@Endpoint(id = "indexes")
+public class IndexesEndpoint {
+
+    private final IndexRegistry indexRegistry;
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public IndexesEndpoint(IndexRegistry indexRegistry, MongoTemplate mongoTemplate) {
+        this.indexRegistry = indexRegistry;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @ReadOperation
+    public Map<String, Object> indexes() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        indexRegistry.getDeclaredIndexNames().forEach((collection, declared) ->
+                report.put(collection, describe(collection, declared)));
+        return report;
+    }
+
+    private Map<String, Object> describe(String collection, List<String> declared) {
+        Map<String, Long> usage = new LinkedHashMap<>();
+        if (mongoTemplate.collectionExists(collection)) {
+            for (Document stats : mongoTemplate.getCollection(collection)
+                    .aggregate(List.of(new Document("$indexStats", new Document())))) {
+                Document accesses = stats.get("accesses", Document.class);
+                usage.put(stats.getString("name"), accesses != null ? ((Number) accesses.get("ops")).longValue() : 0L);
+            }
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String name : declared) {
+            if (!usage.containsKey(name)) {
+                missing.add(name);
+            }
+        }
+        List<String> undeclared = new ArrayList<>();
+        List<String> unused = new ArrayList<>();
+        usage.forEach((name, ops) -> {
+            if (name.equals("_id_")) {
+                return;
+            }
+            if (!declared.contains(name)) {
+                undeclared.add(name);
+            }
+            if (ops == 0) {
+                unused.add(name);
+            }
+        });
+
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("usage", usage);
+        description.put("missing", missing);
+        description.put("undeclared", undeclared);
+        description.put("unused", unused);
+        return description;
+    }
+}
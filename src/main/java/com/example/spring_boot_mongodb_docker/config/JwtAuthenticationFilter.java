@@ -1,31 +1,39 @@
 package com.example.spring_boot_mongodb_docker.config;
 
 import com.example.spring_boot_mongodb_docker.service.JwtService;
+import com.example.spring_boot_mongodb_docker.service.PrincipalCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+
+    // Authenticate from the token's claims alone instead of loading the user
+    @Value("${app.security.jwt.stateless:true}")
+    private boolean stateless;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, PrincipalCache principalCache) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -42,12 +50,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        // Verified once here; the claims are reused for the validity check below
+        Claims claims = jwtService.parseToken(jwt);
+        username = claims.getSubject();
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && principalCache.isCurrent(username, jwtService.extractSecurityVersion(claims))) {
+            UserDetails userDetails = resolvePrincipal(username, claims);
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (userDetails != null && jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -61,4 +72,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolvePrincipal(String username, Claims claims) {
+        List<GrantedAuthority> authorities = stateless ? jwtService.extractAuthorities(claims) : null;
+        if (authorities != null) {
+            // Lock and role changes revoke the token, so its claims are still accurate here
+            return org.springframework.security.core.userdetails.User.withUsername(username)
+                    .password("")
+                    .authorities(authorities)
+                    .build();
+        }
+
+        // Tokens issued without roles, or stateless mode switched off
+        UserDetails userDetails = principalCache.loadUser(username);
+        return userDetails.isAccountNonLocked() && userDetails.isEnabled() ? userDetails : null;
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory buckets, limited per node. The number of buckets is bounded and a bucket is
+ * dropped once it has been idle long enough to have refilled completely, so a scan from many
+ * addresses cannot grow the heap without limit.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.backend", havingValue = "local", matchIfMissing = true)
+public class LocalBucketStore implements BucketStore {
+
+    private final Cache<String, Bucket> buckets;
+
+    @Autowired
+    public LocalBucketStore(RateLimitProperties properties) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxLocalBuckets())
+                .expireAfterAccess(properties.getLongestPeriod())
+                .build();
+    }
+
+    @Override
+    public boolean tryConsume(String key, RateLimitProperties.Limit limit) {
+        return buckets.get(key, k -> createBucket(limit)).tryConsume(1);
+    }
+
+    private Bucket createBucket(RateLimitProperties.Limit limit) {
+        Bandwidth bandwidth = Bandwidth.classic(limit.getCapacity(),
+                Refill.greedy(limit.getCapacity(), limit.getPeriod()));
+        return Bucket.builder().addLimit(bandwidth).build();
+    }
+}
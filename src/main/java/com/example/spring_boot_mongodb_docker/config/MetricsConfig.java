@@ -3,11 +3,21 @@ package com.example.spring_boot_mongodb_docker.config;
 import io.micrometer.core.aop.TimedAspect;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
 @Configuration
 @EnableAspectJAutoProxy
 public class MetricsConfig {
@@ -19,13 +29,27 @@ public class MetricsConfig {
     private final Counter loginSuccessCounter;
     private final Counter loginFailureCounter;
     private final Counter itemCreationCounter;
+    private final Counter bulkIngestDocumentCounter;
 
     // Timers for performance metrics
-    private final Timer databaseOperationTimer;
     private final Timer authenticationTimer;
+    private final Timer bulkIngestBatchTimer;
+
+    // Summaries
+    private final DistributionSummary bulkIngestThroughput;
 
-    public MetricsConfig(MeterRegistry meterRegistry) {
+    // Database operation timers by collection, then operation; looked up on every database call,
+    // so an existing timer is found without allocating
+    private final Map<String, Map<String, DatabaseOperationTimers>> databaseOperationTimers = new ConcurrentHashMap<>();
+    private final Duration[] databaseOperationSlos;
+    private final Duration databaseOperationWindow;
+
+    public MetricsConfig(MeterRegistry meterRegistry,
+                         @Value("${app.metrics.database.slos:5ms,10ms,25ms,50ms,100ms,250ms,500ms,1s}") Duration[] databaseOperationSlos,
+                         @Value("${app.metrics.database.window:2m}") Duration databaseOperationWindow) {
         this.meterRegistry = meterRegistry;
+        this.databaseOperationSlos = databaseOperationSlos;
+        this.databaseOperationWindow = databaseOperationWindow;
 
         // Initialize counters
         this.userRegistrationCounter = Counter.builder("app.user.registration")
@@ -44,14 +68,24 @@ public class MetricsConfig {
                 .description("Number of items created")
                 .register(meterRegistry);
 
-        // Initialize timers
-        this.databaseOperationTimer = Timer.builder("app.database.operation.time")
-                .description("Time taken for database operations")
+        this.bulkIngestDocumentCounter = Counter.builder("app.item.bulk.documents")
+                .description("Number of items written through bulk ingest")
                 .register(meterRegistry);
 
+        // Initialize timers
         this.authenticationTimer = Timer.builder("app.authentication.time")
                 .description("Time taken for authentication")
                 .register(meterRegistry);
+
+        this.bulkIngestBatchTimer = Timer.builder("app.item.bulk.batch.time")
+                .description("Time taken to write one bulk ingest batch")
+                .register(meterRegistry);
+
+        // Initialize summaries
+        this.bulkIngestThroughput = DistributionSummary.builder("app.item.bulk.throughput")
+                .description("Documents written per second, per bulk ingest batch")
+                .baseUnit("documents/s")
+                .register(meterRegistry);
     }
 
     @Bean
@@ -77,25 +111,108 @@ public class MetricsConfig {
         return itemCreationCounter;
     }
 
-    public Timer getDatabaseOperationTimer() {
-        return databaseOperationTimer;
+    public Counter getBulkIngestDocumentCounter() {
+        return bulkIngestDocumentCounter;
     }
 
     public Timer getAuthenticationTimer() {
         return authenticationTimer;
     }
 
-    // Example method to record database operation time
-    public <T> T recordDatabaseOperationTime(String operationName, java.util.function.Supplier<T> operation) {
-        return databaseOperationTimer.record(() -> {
-            try {
-                return operation.get();
-            } catch (Exception e) {
-                // You might want to record errors as well
-                meterRegistry.counter("app.database.operation.error", "operation", operationName).increment();
-                throw e;
-            }
-        });
+    public Timer getBulkIngestBatchTimer() {
+        return bulkIngestBatchTimer;
+    }
+
+    public DistributionSummary getBulkIngestThroughput() {
+        return bulkIngestThroughput;
+    }
+
+    /**
+     * Times a database operation under app.database.operation.time, tagged with the collection,
+     * the operation and whether it succeeded.
+     */
+    public <T> T recordDatabaseOperationTime(String collection, String operationName, Supplier<T> operation) {
+        DatabaseOperationTimers timers = databaseOperationTimers(collection, operationName);
+        long startTime = System.nanoTime();
+        try {
+            T result = operation.get();
+            timers.success.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            timers.error.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("app.database.operation.error", "operation", operationName).increment();
+            throw e;
+        }
     }
-}
 
+    /**
+     * All database operation timers recorded so far, with their collection and operation.
+     */
+    public List<DatabaseOperationTimer> getDatabaseOperationTimers() {
+        List<DatabaseOperationTimer> timers = new ArrayList<>();
+        databaseOperationTimers.forEach((collection, operations) -> operations.forEach((operation, pair) -> {
+            timers.add(new DatabaseOperationTimer(collection, operation, "success", pair.success));
+            timers.add(new DatabaseOperationTimer(collection, operation, "error", pair.error));
+        }));
+        return timers;
+    }
+
+    private DatabaseOperationTimers databaseOperationTimers(String collection, String operationName) {
+        Map<String, DatabaseOperationTimers> operations = databaseOperationTimers.get(collection);
+        if (operations == null) {
+            operations = databaseOperationTimers.computeIfAbsent(collection, c -> new ConcurrentHashMap<>());
+        }
+        DatabaseOperationTimers timers = operations.get(operationName);
+        if (timers == null) {
+            timers = operations.computeIfAbsent(operationName,
+                    operation -> new DatabaseOperationTimers(databaseOperationTimer(collection, operation, "success"),
+                            databaseOperationTimer(collection, operation, "error")));
+        }
+        return timers;
+    }
+
+    private Timer databaseOperationTimer(String collection, String operationName, String outcome) {
+        return Timer.builder("app.database.operation.time")
+                .description("Time taken for database operations")
+                .tag("collection", collection)
+                .tag("operation", operationName)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(databaseOperationSlos)
+                // Percentiles and max() cover this sliding window
+                .distributionStatisticExpiry(databaseOperationWindow)
+                .register(meterRegistry);
+    }
+
+    private static class DatabaseOperationTimers {
+
+        private final Timer success;
+        private final Timer error;
+
+        DatabaseOperationTimers(Timer success, Timer error) {
+            this.success = success;
+            this.error = error;
+        }
+    }
+
+    public static class DatabaseOperationTimer {
+
+        private final String collection;
+        private final String operation;
+        private final String outcome;
+        private final Timer timer;
+
+        DatabaseOperationTimer(String collection, String operation, String outcome, Timer timer) {
+            this.collection = collection;
+            this.operation = operation;
+            this.outcome = outcome;
+            this.timer = timer;
+        }
+
+        // Getters
+        public String getCollection() { return collection; }
+        public String getOperation() { return operation; }
+        public String getOutcome() { return outcome; }
+        public Timer getTimer() { return timer; }
+    }
+}
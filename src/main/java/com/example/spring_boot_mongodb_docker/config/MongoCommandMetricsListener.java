@@ -0,0 +1,234 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records what the driver actually sends: latency, documents returned and reply size per
+ * command and collection, and logs commands slower than the threshold with their query
+ * shape. Replaces Spring Boot's mongodb.driver.commands meters, which are turned off.
+ *
+ * The shape is taken for every command, since the command document is only valid while it
+ * starts, so it is kept small: the command, its collection and the top-level keys of the
+ * filter and sort (values replaced by "?"), or the stage names of a pipeline. Written
+ * documents (insert, update and delete payloads) are never looked at.
+ */
+public class MongoCommandMetricsListener implements CommandListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoCommandMetricsListener.class);
+
+    private static final BsonString REDACTED = new BsonString("?");
+    // Caps the shape of very wide filters and long pipelines
+    private static final int MAX_SHAPE_KEYS = 16;
+
+    private final MeterRegistry meterRegistry;
+    private final long slowQueryThresholdNanos;
+    private final boolean recordReplySize;
+
+    // Commands in flight by request id; the command document is only valid during commandStarted
+    private final Map<Integer, InFlightCommand> inFlight = new ConcurrentHashMap<>();
+    // Meters by collection, then command name
+    private final Map<String, Map<String, CommandMeters>> meters = new ConcurrentHashMap<>();
+
+    public MongoCommandMetricsListener(MeterRegistry meterRegistry, Duration slowQueryThreshold, boolean recordReplySize) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+        this.recordReplySize = recordReplySize;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        BsonDocument shape = slowQueryThresholdNanos > 0 ? queryShape(command) : null;
+        inFlight.put(event.getRequestId(), new InFlightCommand(collectionName(command), shape));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        InFlightCommand command = inFlight.remove(event.getRequestId());
+        String collection = command != null ? command.collection : "unknown";
+        long elapsedNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+
+        CommandMeters commandMeters = meters(collection, event.getCommandName());
+        commandMeters.success.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        BsonDocument reply = event.getResponse();
+        commandMeters.documents.record(documentsReturned(reply));
+        if (recordReplySize) {
+            commandMeters.replyBytes.record(encodedSize(reply));
+        }
+
+        logIfSlow(event.getCommandName(), command, elapsedNanos, "succeeded");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        InFlightCommand command = inFlight.remove(event.getRequestId());
+        String collection = command != null ? command.collection : "unknown";
+        long elapsedNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+
+        meters(collection, event.getCommandName()).failure.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        logIfSlow(event.getCommandName(), command, elapsedNanos, "failed");
+    }
+
+    private void logIfSlow(String commandName, InFlightCommand command, long elapsedNanos, String outcome) {
+        if (slowQueryThresholdNanos > 0 && elapsedNanos >= slowQueryThresholdNanos && command != null) {
+            logger.warn("Slow MongoDB command {} on {} {} after {}ms: {}", commandName, command.collection, outcome,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), command.shape != null ? command.shape.toJson() : null);
+        }
+    }
+
+    private CommandMeters meters(String collection, String commandName) {
+        Map<String, CommandMeters> commands = meters.get(collection);
+        if (commands == null) {
+            commands = meters.computeIfAbsent(collection, c -> new ConcurrentHashMap<>());
+        }
+        CommandMeters commandMeters = commands.get(commandName);
+        if (commandMeters == null) {
+            commandMeters = commands.computeIfAbsent(commandName, name -> new CommandMeters(collection, name));
+        }
+        return commandMeters;
+    }
+
+    /**
+     * The command name and collection, the keys of its filter and sort, and the stages of its
+     * pipeline; values are replaced by "?", so it can be logged without user data.
+     */
+    static BsonDocument queryShape(BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        if (command.isEmpty()) {
+            return shape;
+        }
+        String commandName = command.getFirstKey();
+        BsonValue target = command.get(commandName);
+        shape.put(commandName, target.isString() ? target : REDACTED);
+        for (String field : new String[]{"filter", "query", "sort"}) {
+            BsonValue value = command.get(field);
+            if (value != null && value.isDocument()) {
+                shape.put(field, keys(value.asDocument()));
+            }
+        }
+        BsonValue pipeline = command.get("pipeline");
+        if (pipeline != null && pipeline.isArray()) {
+            BsonArray stages = new BsonArray();
+            for (BsonValue stage : pipeline.asArray()) {
+                if (stages.size() == MAX_SHAPE_KEYS) {
+                    stages.add(new BsonString("..."));
+                    break;
+                }
+                stages.add(stage.isDocument() && !stage.asDocument().isEmpty()
+                        ? new BsonString(stage.asDocument().getFirstKey()) : REDACTED);
+            }
+            shape.put("pipeline", stages);
+        }
+        return shape;
+    }
+
+    private static BsonDocument keys(BsonDocument document) {
+        BsonDocument keys = new BsonDocument();
+        for (String key : document.keySet()) {
+            if (keys.size() == MAX_SHAPE_KEYS) {
+                keys.put("...", REDACTED);
+                break;
+            }
+            keys.put(key, REDACTED);
+        }
+        return keys;
+    }
+
+    private static String collectionName(BsonDocument command) {
+        if (command.isEmpty()) {
+            return "unknown";
+        }
+        BsonValue target = command.get(command.getFirstKey());
+        if (target.isString()) {
+            return target.asString().getValue();
+        }
+        // getMore names its collection separately
+        BsonValue collection = command.get("collection");
+        return collection != null && collection.isString() ? collection.asString().getValue() : "admin";
+    }
+
+    private static int documentsReturned(BsonDocument reply) {
+        BsonDocument cursor = reply.getDocument("cursor", null);
+        if (cursor != null) {
+            BsonArray batch = cursor.getArray("firstBatch", cursor.getArray("nextBatch", null));
+            return batch != null ? batch.size() : 0;
+        }
+        BsonValue values = reply.get("values");
+        return values != null && values.isArray() ? values.asArray().size() : 0;
+    }
+
+    private static int encodedSize(BsonDocument reply) {
+        try (BasicOutputBuffer buffer = new BasicOutputBuffer();
+             BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            new BsonDocumentCodec().encode(writer, reply, EncoderContext.builder().build());
+            return buffer.getPosition();
+        }
+    }
+
+    private static class InFlightCommand {
+
+        private final String collection;
+        private final BsonDocument shape;
+
+        InFlightCommand(String collection, BsonDocument shape) {
+            this.collection = collection;
+            this.shape = shape;
+        }
+    }
+
+    private class CommandMeters {
+
+        private final Timer success;
+        private final Timer failure;
+        private final DistributionSummary documents;
+        private final DistributionSummary replyBytes;
+
+        CommandMeters(String collection, String commandName) {
+            this.success = commandTimer(collection, commandName, "success");
+            this.failure = commandTimer(collection, commandName, "error");
+            this.documents = DistributionSummary.builder("app.mongo.command.documents")
+                    .description("Documents returned per MongoDB command")
+                    .tag("collection", collection)
+                    .tag("command", commandName)
+                    .register(meterRegistry);
+            this.replyBytes = DistributionSummary.builder("app.mongo.command.reply.size")
+                    .description("Size of MongoDB command replies")
+                    .baseUnit("bytes")
+                    .tag("collection", collection)
+                    .tag("command", commandName)
+                    .register(meterRegistry);
+        }
+
+        private Timer commandTimer(String collection, String commandName, String outcome) {
+            return Timer.builder("app.mongo.command.time")
+                    .description("Time the driver spent on a MongoDB command, excluding mapping")
+                    .tag("collection", collection)
+                    .tag("command", commandName)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class MongoMonitoringConfig {
+
+    @Value("${app.mongo.slow-query.threshold:100ms}")
+    private Duration slowQueryThreshold;
+
+    @Value("${app.mongo.metrics.reply-size.enabled:false}")
+    private boolean recordReplySize;
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoMonitoringCustomizer(MeterRegistry meterRegistry) {
+        MongoCommandMetricsListener commandListener =
+                new MongoCommandMetricsListener(meterRegistry, slowQueryThreshold, recordReplySize);
+        MongoPoolMetricsListener poolListener = new MongoPoolMetricsListener(meterRegistry);
+        return builder -> builder
+                .addCommandListener(commandListener)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(poolListener));
+    }
+}
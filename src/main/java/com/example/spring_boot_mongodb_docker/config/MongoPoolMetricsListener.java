@@ -0,0 +1,157 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection pool usage per server: time spent waiting for a connection, and gauges for the
+ * pool size, connections in use, waiting threads and saturation (in use / maxPoolSize).
+ * A saturation close to 1 together with a growing wait time means maxPoolSize is too small.
+ * Replaces Spring Boot's mongodb.driver.pool meters, which are turned off.
+ */
+public class MongoPoolMetricsListener implements ConnectionPoolListener {
+
+    private final MeterRegistry meterRegistry;
+    private final Timer waitTimer;
+    private final Timer waitFailedTimer;
+
+    // The sync driver checks connections out on the calling thread
+    private final ThreadLocal<Long> checkOutStarted = new ThreadLocal<>();
+    private final Map<ServerId, PoolStats> pools = new ConcurrentHashMap<>();
+
+    public MongoPoolMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder("app.mongo.pool.wait")
+                .description("Time spent waiting to check a connection out of the pool")
+                .tag("outcome", "success")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.waitFailedTimer = Timer.builder("app.mongo.pool.wait")
+                .description("Time spent waiting to check a connection out of the pool")
+                .tag("outcome", "error")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        PoolStats stats = new PoolStats(event.getSettings().getMaxSize());
+        Tags tags = Tags.of("server", event.getServerId().getAddress().toString());
+        stats.meters.add(Gauge.builder("app.mongo.pool.size", stats.size, AtomicInteger::get)
+                .description("Open connections").tags(tags).register(meterRegistry));
+        stats.meters.add(Gauge.builder("app.mongo.pool.in-use", stats.checkedOut, AtomicInteger::get)
+                .description("Connections checked out").tags(tags).register(meterRegistry));
+        stats.meters.add(Gauge.builder("app.mongo.pool.waiting", stats.waiting, AtomicInteger::get)
+                .description("Threads waiting for a connection").tags(tags).register(meterRegistry));
+        stats.meters.add(Gauge.builder("app.mongo.pool.max", stats, s -> s.maxSize)
+                .description("maxPoolSize").tags(tags).register(meterRegistry));
+        stats.meters.add(Gauge.builder("app.mongo.pool.saturation", stats, PoolStats::saturation)
+                .description("Connections checked out divided by maxPoolSize").tags(tags).register(meterRegistry));
+        pools.put(event.getServerId(), stats);
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        PoolStats stats = pools.remove(event.getServerId());
+        if (stats != null) {
+            stats.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        checkOutStarted.set(System.nanoTime());
+        PoolStats stats = pools.get(event.getServerId());
+        if (stats != null) {
+            stats.waiting.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        recordWait(waitTimer);
+        PoolStats stats = pools.get(event.getConnectionId().getServerId());
+        if (stats != null) {
+            stats.waiting.decrementAndGet();
+            stats.checkedOut.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        recordWait(waitFailedTimer);
+        PoolStats stats = pools.get(event.getServerId());
+        if (stats != null) {
+            stats.waiting.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        PoolStats stats = pools.get(event.getConnectionId().getServerId());
+        if (stats != null) {
+            stats.checkedOut.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        PoolStats stats = pools.get(event.getConnectionId().getServerId());
+        if (stats != null) {
+            stats.size.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        PoolStats stats = pools.get(event.getConnectionId().getServerId());
+        if (stats != null) {
+            stats.size.decrementAndGet();
+        }
+    }
+
+    private void recordWait(Timer timer) {
+        Long started = checkOutStarted.get();
+        if (started != null) {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            checkOutStarted.remove();
+        }
+    }
+
+    private static class PoolStats {
+
+        private final int maxSize;
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicInteger checkedOut = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final List<Meter> meters = new ArrayList<>();
+
+        PoolStats(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        double saturation() {
+            return maxSize > 0 ? (double) checkedOut.get() / maxSize : 0;
+        }
+    }
+}
@@ -1,16 +1,81 @@
 package com.example.spring_boot_mongodb_docker.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Password hashes are stored as "{algorithm}hash", and the hash itself records its cost, so the
+ * algorithm and work factor can change without invalidating existing passwords. New hashes use
+ * app.security.password.algorithm with a cost calibrated to target-time on this machine (unless
+ * fixed in the properties); older or cheaper hashes are replaced on the user's next login.
+ */
 @Configuration
 public class PasswordConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(PasswordConfig.class);
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    // Never calibrate below Spring Security's default BCrypt strength
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int MIN_ARGON2_ITERATIONS = 2;
+    private static final int MAX_ARGON2_ITERATIONS = 20;
+
+    // Hashing is CPU-bound by design; it runs on a bounded pool instead of the request threads
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor,
+                                           @Value("${app.security.password.algorithm:bcrypt}") String algorithm,
+                                           @Value("${app.security.password.target-time:250ms}") Duration targetTime,
+                                           @Value("${app.security.password.bcrypt.strength:0}") int bcryptStrength,
+                                           @Value("${app.security.password.argon2.memory:19456}") int argon2Memory,
+                                           @Value("${app.security.password.argon2.parallelism:1}") int argon2Parallelism,
+                                           @Value("${app.security.password.argon2.iterations:0}") int argon2Iterations) {
+        if (!BCRYPT.equals(algorithm) && !ARGON2.equals(algorithm)) {
+            throw new IllegalStateException("Unknown password algorithm: " + algorithm);
+        }
+        PasswordHashCalibrator calibrator = new PasswordHashCalibrator(targetTime);
+
+        // Only the encoder used for new hashes needs a tuned cost; the others just verify
+        // existing hashes, whose cost is read from the hash
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        if (BCRYPT.equals(algorithm)) {
+            int strength = bcryptStrength > 0
+                    ? bcryptStrength
+                    : calibrator.calibrateBCryptStrength(MIN_BCRYPT_STRENGTH, MAX_BCRYPT_STRENGTH);
+            logger.info("New passwords are hashed with bcrypt, strength {}", strength);
+            encoders.put(BCRYPT, new BCryptPasswordEncoder(strength));
+        } else {
+            encoders.put(BCRYPT, new BCryptPasswordEncoder());
+        }
+        if (ARGON2.equals(algorithm)) {
+            int iterations = argon2Iterations > 0
+                    ? argon2Iterations
+                    : calibrator.calibrateArgon2Iterations(argon2Memory, argon2Parallelism,
+                            MIN_ARGON2_ITERATIONS, MAX_ARGON2_ITERATIONS);
+            logger.info("New passwords are hashed with argon2, memory {}KiB, parallelism {}, iterations {}",
+                    argon2Memory, argon2Parallelism, iterations);
+            encoders.put(ARGON2, new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2Memory, iterations));
+        } else {
+            encoders.put(ARGON2, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+
+        DelegatingPasswordEncoder delegatingEncoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Hashes stored before the "{id}" prefix was introduced are plain BCrypt
+        delegatingEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        return new BoundedPasswordEncoder(delegatingEncoder, passwordHashingExecutor);
     }
 }
-
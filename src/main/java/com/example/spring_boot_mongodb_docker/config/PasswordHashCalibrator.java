@@ -0,0 +1,74 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+/**
+ * Picks password hashing work factors by timing verifications on this machine, so the cost of
+ * a hash follows the hardware instead of a constant chosen years ago.
+ *
+ * Every measured setting is logged with its verification time, which is the table to look at
+ * when choosing a different target.
+ */
+public class PasswordHashCalibrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "Calibration-Passw0rd!";
+    private static final int RUNS = 3;
+
+    private final Duration target;
+
+    public PasswordHashCalibrator(Duration target) {
+        this.target = target;
+    }
+
+    /**
+     * Highest BCrypt strength whose verification stays within the target, never below min.
+     * Each step doubles the time, so stepping stops as soon as the next one would not fit.
+     */
+    public int calibrateBCryptStrength(int min, int max) {
+        int strength = min;
+        long nanos = measure("bcrypt strength " + strength, strength, BCryptPasswordEncoder::new);
+        while (strength < max && nanos * 2 <= target.toNanos()) {
+            strength++;
+            nanos = measure("bcrypt strength " + strength, strength, BCryptPasswordEncoder::new);
+        }
+        return strength;
+    }
+
+    /**
+     * Highest Argon2 iteration count within the target for the given memory (KiB) and
+     * parallelism, never below min. Time grows linearly with iterations.
+     */
+    public int calibrateArgon2Iterations(int memory, int parallelism, int min, int max) {
+        IntFunction<PasswordEncoder> encoder = iterations -> new Argon2PasswordEncoder(16, 32, parallelism, memory, iterations);
+        long nanos = measure("argon2 m=" + memory + " p=" + parallelism + " t=" + min, min, encoder);
+        long perIteration = Math.max(1, nanos / min);
+        int iterations = (int) Math.max(min, Math.min(max, target.toNanos() / perIteration));
+        if (iterations != min) {
+            measure("argon2 m=" + memory + " p=" + parallelism + " t=" + iterations, iterations, encoder);
+        }
+        return iterations;
+    }
+
+    // Fastest of a few verifications, which is the least disturbed by whatever else starts up
+    private long measure(String setting, int cost, IntFunction<PasswordEncoder> encoderForCost) {
+        PasswordEncoder encoder = encoderForCost.apply(cost);
+        String hash = encoder.encode(SAMPLE_PASSWORD);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, hash);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        logger.info("Password hash calibration: {} verifies in {}ms", setting, fastest / 1_000_000);
+        return fastest;
+    }
+}
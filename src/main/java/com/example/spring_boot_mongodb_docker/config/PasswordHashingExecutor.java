@@ -0,0 +1,220 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import com.example.spring_boot_mongodb_docker.exception.ThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small dedicated pool, so a burst of logins cannot take every core
+ * away from the rest of the API.
+ *
+ * At most queue-capacity hashes wait for a thread; beyond that callers are rejected straight
+ * away with a ThrottledException (429) instead of queueing up. Work submitted at LOW priority
+ * (logins for usernames that recently failed) only gets half the queue and runs after HIGH
+ * priority work, so credential stuffing is shed first.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    public enum Priority { HIGH, LOW }
+
+    private static final ThreadLocal<Priority> currentPriority = new ThreadLocal<>();
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final Duration maxWait;
+
+    // Tasks submitted but not started yet; the PriorityBlockingQueue itself is unbounded
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final MeterRegistry meterRegistry;
+    private final Timer waitTimer;
+    // Hash time per operation, registered up front so the hot path does no registry lookup
+    private final Map<String, Timer> hashTimers = new ConcurrentHashMap<>();
+    private final Counter rejectedHigh;
+    private final Counter rejectedLow;
+
+    @Autowired
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${app.security.password-hashing.threads:0}") int threads,
+                                   @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${app.security.password-hashing.max-wait:2s}") Duration maxWait) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.queueCapacity = queueCapacity;
+        this.maxWait = maxWait;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("app.password.hashing.queue", queued, AtomicInteger::get)
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("app.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes in progress")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("app.password.hashing.wait")
+                .description("Time password hashes spent queued")
+                .register(meterRegistry);
+        this.rejectedHigh = rejectedCounter(Priority.HIGH);
+        this.rejectedLow = rejectedCounter(Priority.LOW);
+        hashTimers.put("encode", hashTimer("encode"));
+        hashTimers.put("matches", hashTimer("matches"));
+    }
+
+    /**
+     * Runs the action with every hash it triggers on this thread submitted at the given priority.
+     */
+    public <T> T callWithPriority(Priority priority, Supplier<T> action) {
+        Priority previous = currentPriority.get();
+        currentPriority.set(priority);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                currentPriority.remove();
+            } else {
+                currentPriority.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs the hash on the pool and waits for its result.
+     *
+     * @param operation tag of the hash time metric, e.g. "encode" or "matches"
+     */
+    public <T> T execute(String operation, Callable<T> hash) {
+        Priority priority = currentPriority.get() != null ? currentPriority.get() : Priority.HIGH;
+        int limit = priority == Priority.HIGH ? queueCapacity : queueCapacity / 2;
+        if (queued.incrementAndGet() > limit) {
+            queued.decrementAndGet();
+            (priority == Priority.HIGH ? rejectedHigh : rejectedLow).increment();
+            throw new ThrottledException("Too many password checks in progress, try again later", maxWait);
+        }
+
+        Timer registered = hashTimers.get(operation);
+        Timer hashTimer = registered != null ? registered : hashTimers.computeIfAbsent(operation, this::hashTimer);
+        long submittedAt = System.nanoTime();
+        HashingTask<T> task = new HashingTask<>(priority, sequence.getAndIncrement(), () -> {
+            waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            return hashTimer.recordCallable(hash);
+        });
+        executor.execute(task);
+
+        try {
+            return task.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Not started yet: drop it so the pool doesn't spend time on an answer nobody waits for
+            task.cancel(false);
+            throw new ThrottledException("Password check timed out, try again later", maxWait);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Timer hashTimer(String operation) {
+        return Timer.builder("app.password.hashing.time")
+                .description("Time spent computing password hashes")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private Counter rejectedCounter(Priority priority) {
+        return Counter.builder("app.password.hashing.rejected")
+                .description("Password hashes rejected because the queue was full")
+                .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ordered by priority, then by submission. Leaves the queue count exactly once, when it
+     * starts running or when it is cancelled before that.
+     */
+    private final class HashingTask<T> extends FutureTask<T> implements Comparable<HashingTask<?>> {
+
+        private final Priority priority;
+        private final long sequence;
+        private final AtomicBoolean dequeued = new AtomicBoolean();
+
+        HashingTask(Priority priority, long sequence, Callable<T> callable) {
+            super(callable);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            if (markDequeued()) {
+                super.run();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return markDequeued() && super.cancel(mayInterruptIfRunning);
+        }
+
+        private boolean markDequeued() {
+            if (dequeued.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(HashingTask<?> other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limits, configured under app.rate-limit. Each request is counted against the first
+ * matching route limit (or the default limit) for its client: the username for authenticated
+ * requests, otherwise the client IP.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    public enum Backend { LOCAL, REDIS }
+
+    private boolean enabled = true;
+    // LOCAL limits each node on its own; REDIS shares the buckets across the cluster
+    private Backend backend = Backend.LOCAL;
+    private Limit defaultLimit = new Limit(20, Duration.ofMinutes(1));
+    // Replaces the default limit for authenticated users when set
+    private Limit userLimit;
+    private List<RouteLimit> routes = new ArrayList<>();
+    // Upper bound on the number of buckets the local backend keeps in memory
+    private long maxLocalBuckets = 100_000;
+
+    public static class Limit {
+
+        private long capacity;
+        private Duration period;
+
+        public Limit() {
+        }
+
+        public Limit(long capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+
+        // Getters and setters
+        public long getCapacity() { return capacity; }
+        public void setCapacity(long capacity) { this.capacity = capacity; }
+        public Duration getPeriod() { return period; }
+        public void setPeriod(Duration period) { this.period = period; }
+    }
+
+    public static class RouteLimit extends Limit {
+
+        // Ant-style path pattern, e.g. /api/auth/**
+        private String pattern;
+        // HTTP methods the limit applies to; all methods when empty
+        private List<String> methods = new ArrayList<>();
+
+        // Getters and setters
+        public String getPattern() { return pattern; }
+        public void setPattern(String pattern) { this.pattern = pattern; }
+        public List<String> getMethods() { return methods; }
+        public void setMethods(List<String> methods) { this.methods = methods; }
+    }
+
+    // Getters and setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public Backend getBackend() { return backend; }
+    public void setBackend(Backend backend) { this.backend = backend; }
+    public Limit getDefaultLimit() { return defaultLimit; }
+    public void setDefaultLimit(Limit defaultLimit) { this.defaultLimit = defaultLimit; }
+    public Limit getUserLimit() { return userLimit; }
+    public void setUserLimit(Limit userLimit) { this.userLimit = userLimit; }
+    public List<RouteLimit> getRoutes() { return routes; }
+    public void setRoutes(List<RouteLimit> routes) { this.routes = routes; }
+    public long getMaxLocalBuckets() { return maxLocalBuckets; }
+    public void setMaxLocalBuckets(long maxLocalBuckets) { this.maxLocalBuckets = maxLocalBuckets; }
+
+    /**
+     * The longest period of any configured limit; a bucket idle for that long is full again.
+     */
+    public Duration getLongestPeriod() {
+        Duration longest = defaultLimit.getPeriod();
+        if (userLimit != null && userLimit.getPeriod().compareTo(longest) > 0) {
+            longest = userLimit.getPeriod();
+        }
+        for (RouteLimit route : routes) {
+            if (route.getPeriod().compareTo(longest) > 0) {
+                longest = route.getPeriod();
+            }
+        }
+        return longest;
+    }
+}
@@ -1,36 +1,62 @@
 package com.example.spring_boot_mongodb_docker.config;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
 
 @Component
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final RateLimitProperties properties;
+    private final BucketStore bucketStore;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    public RateLimitingFilter(RateLimitProperties properties, BucketStore bucketStore) {
+        this.properties = properties;
+        this.bucketStore = bucketStore;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        String ipAddress = getClientIP(request);
+        if (!properties.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Runs after the security filter chain, so the JWT user is already known
+        String username = getAuthenticatedUsername();
+        String client = username != null ? "user:" + username : "ip:" + clientAddress(request);
 
-        // Create bucket for IP if it doesn't exist
-        Bucket bucket = buckets.computeIfAbsent(ipAddress, ip -> createNewBucket());
+        String limitName = "default";
+        RateLimitProperties.Limit limit = username != null && properties.getUserLimit() != null
+                ? properties.getUserLimit()
+                : properties.getDefaultLimit();
 
-        if (bucket.tryConsume(1)) {
+        List<RateLimitProperties.RouteLimit> routes = properties.getRoutes();
+        for (int i = 0; i < routes.size(); i++) {
+            if (matches(routes.get(i), request)) {
+                limitName = "route" + i;
+                limit = routes.get(i);
+                break;
+            }
+        }
+
+        if (bucketStore.tryConsume(limitName + ":" + client, limit)) {
             // Allow the request
             filterChain.doFilter(request, response);
         } else {
@@ -40,13 +66,28 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         }
     }
 
-    private Bucket createNewBucket() {
-        // Allow 20 requests per minute
-        Bandwidth limit = Bandwidth.classic(20, Refill.greedy(20, Duration.ofMinutes(1)));
-        return Bucket.builder().addLimit(limit).build();
+    private boolean matches(RateLimitProperties.RouteLimit route, HttpServletRequest request) {
+        if (!route.getMethods().isEmpty()
+                && route.getMethods().stream().noneMatch(method -> method.equalsIgnoreCase(request.getMethod()))) {
+            return false;
+        }
+        return pathMatcher.match(route.getPattern(), request.getRequestURI());
+    }
+
+    private String getAuthenticatedUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
     }
 
-    private String getClientIP(HttpServletRequest request) {
+    /**
+     * The client's address: the first X-Forwarded-For entry set by the proxy in front of the
+     * application, or the peer address when there is none.
+     */
+    public static String clientAddress(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
             return xForwardedFor.split(",")[0].trim();
@@ -0,0 +1,48 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Buckets shared by all nodes through Redis. The refill and consume happen in one Lua script,
+ * so each request costs a single round trip and concurrent requests cannot overdraw a bucket.
+ * Keys expire once the bucket would be full again.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.backend", havingValue = "redis")
+public class RedisBucketStore implements BucketStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisBucketStore.class);
+
+    private static final String KEY_PREFIX = "rate-limit:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisScript<Long> tryConsumeScript;
+
+    @Autowired
+    public RedisBucketStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.tryConsumeScript = RedisScript.of(new ClassPathResource("scripts/rate-limit-try-consume.lua"), Long.class);
+    }
+
+    @Override
+    public boolean tryConsume(String key, RateLimitProperties.Limit limit) {
+        try {
+            Long allowed = redisTemplate.execute(tryConsumeScript, List.of(KEY_PREFIX + key),
+                    Long.toString(limit.getCapacity()), Long.toString(limit.getPeriod().toMillis()));
+            return allowed == null || allowed == 1L;
+        } catch (Exception e) {
+            // Don't take the API down with Redis; requests are let through until it is back
+            logger.warn("Rate limit check failed for {}, allowing request", key, e);
+            return true;
+        }
+    }
+}
@@ -4,28 +4,35 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class RequestLoggingFilter extends OncePerRequestFilter {
 
-    private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
+    private final AccessLogPipeline accessLogPipeline;
+
+    @Autowired
+    public RequestLoggingFilter(AccessLogPipeline accessLogPipeline) {
+        this.accessLogPipeline = accessLogPipeline;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        // Generate unique request ID
-        String requestId = UUID.randomUUID().toString();
+        // Generate request ID; only needs to be unique enough to correlate log lines, so a
+        // thread-local PRNG is used instead of the SecureRandom behind UUID.randomUUID()
+        String requestId = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
         MDC.put("requestId", requestId);
 
         // Get client IP
@@ -33,26 +40,25 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
         MDC.put("clientIp", clientIp);
 
         // Get authenticated user if available
+        String userId = null;
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated() &&
                 !authentication.getName().equals("anonymousUser")) {
-            MDC.put("userId", authentication.getName());
+            userId = authentication.getName();
+            MDC.put("userId", userId);
         }
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
 
         try {
-            logger.info("Received request: {} {} from IP: {}",
-                    request.getMethod(), request.getRequestURI(), clientIp);
-
             // Add request ID to response header for client-side tracking
             response.setHeader("X-Request-ID", requestId);
 
             filterChain.doFilter(request, response);
         } finally {
-            long duration = System.currentTimeMillis() - startTime;
-            logger.info("Request completed in {}ms with status {}",
-                    duration, response.getStatus());
+            long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            accessLogPipeline.publish(new AccessLogPipeline.AccessLogEvent(requestId, request.getMethod(),
+                    request.getRequestURI(), response.getStatus(), duration, clientIp, userId));
 
             // Clear MDC context to prevent memory leaks
             MDC.clear();
@@ -0,0 +1,62 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * /actuator/slowoperations: database operations ranked by their slowest call within the
+ * sliding window of the operation timers (app.metrics.database.window).
+ */
+@Component
+@Endpoint(id = "slowoperations")
+public class SlowOperationsEndpoint {
+
+    private final MetricsConfig metricsConfig;
+
+    @Autowired
+    public SlowOperationsEndpoint(MetricsConfig metricsConfig) {
+        this.metricsConfig = metricsConfig;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> slowOperations(@Nullable Integer limit) {
+        return metricsConfig.getDatabaseOperationTimers().stream()
+                .filter(entry -> entry.getTimer().max(TimeUnit.MILLISECONDS) > 0)
+                .sorted(Comparator.comparingDouble(
+                        (MetricsConfig.DatabaseOperationTimer entry) -> entry.getTimer().max(TimeUnit.MILLISECONDS))
+                        .reversed())
+                .limit(limit != null ? limit : 10)
+                .map(this::describe)
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Object> describe(MetricsConfig.DatabaseOperationTimer entry) {
+        Timer timer = entry.getTimer();
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+
+        Map<String, Object> operation = new LinkedHashMap<>();
+        operation.put("collection", entry.getCollection());
+        operation.put("operation", entry.getOperation());
+        operation.put("outcome", entry.getOutcome());
+        operation.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            operation.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        operation.put("count", snapshot.count());
+        operation.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+        return operation;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache with an on-heap L1 (Caffeine) in front of a shared L2 (Redis).
+ * Reads hit L1 first and only fall through to L2 on a miss; writes go to both tiers
+ * and notify the other nodes so they can drop their L1 copy.
+ */
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    private final Cache remote;
+    private final TwoTierCacheManager manager;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter l1Evictions;
+    private final Counter l2Evictions;
+
+    public TwoTierCache(String name, Cache remote, TwoTierCacheManager manager,
+                        long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.remote = remote;
+        this.manager = manager;
+
+        this.l1Hits = cacheCounter("app.cache.gets", meterRegistry, "l1", "result", "hit");
+        this.l1Misses = cacheCounter("app.cache.gets", meterRegistry, "l1", "result", "miss");
+        this.l2Hits = cacheCounter("app.cache.gets", meterRegistry, "l2", "result", "hit");
+        this.l2Misses = cacheCounter("app.cache.gets", meterRegistry, "l2", "result", "miss");
+        this.l1Evictions = cacheCounter("app.cache.evictions", meterRegistry, "l1", "cause", "size_or_ttl");
+        this.l2Evictions = cacheCounter("app.cache.evictions", meterRegistry, "l2", "cause", "explicit");
+
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .removalListener((Object key, Object value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        l1Evictions.increment();
+                    }
+                })
+                .build();
+    }
+
+    private Counter cacheCounter(String metric, MeterRegistry registry, String tier, String tagKey, String tagValue) {
+        return Counter.builder(metric)
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag(tagKey, tagValue)
+                .register(registry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object cached = local.getIfPresent(key);
+        if (cached != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(fromStoreValue(cached));
+        }
+        l1Misses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null) {
+            l2Hits.increment();
+            local.put(key, toStoreValue(wrapper.get()));
+        } else {
+            l2Misses.increment();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(key, toStoreValue(value));
+        // Other nodes may still hold the previous value in their L1
+        manager.publishEvict(name, key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            local.put(key, toStoreValue(value));
+            manager.publishEvict(name, key);
+        } else {
+            local.put(key, toStoreValue(existing.get()));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(key);
+        l2Evictions.increment();
+        manager.publishEvict(name, key);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        manager.publishClear(name);
+    }
+
+    // Invoked when another node reports a change; only the local tier is touched
+
+    void evictLocal(Object key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private static Object toStoreValue(Object value) {
+        return value != null ? value : NullValue.INSTANCE;
+    }
+
+    private static Object fromStoreValue(Object value) {
+        return value == NullValue.INSTANCE ? null : value;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.spring_boot_mongodb_docker.controller;
 
+import com.example.spring_boot_mongodb_docker.model.CursorSlice;
 import com.example.spring_boot_mongodb_docker.model.Role;
 import com.example.spring_boot_mongodb_docker.model.User;
 import com.example.spring_boot_mongodb_docker.service.UserService;
@@ -36,11 +37,23 @@ public class AdminController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "username") String sortBy,
-            @RequestParam(defaultValue = "asc") String direction) {
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor) {
 
         Sort.Direction sortDirection = direction.equalsIgnoreCase("desc") ?
                 Sort.Direction.DESC : Sort.Direction.ASC;
 
+        // Keyset pagination when a cursor is supplied (empty for the first slice)
+        if (cursor != null) {
+            CursorSlice<User> slice = userService.findAllByCursor(cursor, size, sortBy, sortDirection);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("content", slice.getContent());
+            response.put("hasNext", slice.hasNext());
+            response.put("nextCursor", slice.getNextCursor());
+            return ResponseEntity.ok(response);
+        }
+
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
         Page<User> pageUsers = userService.findAllPaginated(pageable);
 
@@ -93,12 +106,10 @@ public class AdminController {
     @PostMapping("/users/{username}/lock")
     public ResponseEntity<?> lockUserAccount(@PathVariable String username) {
         try {
-            Optional<User> userOpt = userService.findByUsername(username);
+            // Locking also revokes the user's tokens
+            Optional<User> userOpt = userService.setAccountLocked(username, true);
             if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                // Don't modify the password
-                user.setAccountNonLocked(false);
-                User updatedUser = userService.saveWithoutEncodingPassword(user);
+                User updatedUser = userOpt.get();
                 updatedUser.setPassword(null); // Remove password from response
                 return ResponseEntity.ok(updatedUser);
             } else {
@@ -112,12 +123,9 @@ public class AdminController {
     @PostMapping("/users/{username}/unlock")
     public ResponseEntity<?> unlockUserAccount(@PathVariable String username) {
         try {
-            Optional<User> userOpt = userService.findByUsername(username);
+            Optional<User> userOpt = userService.setAccountLocked(username, false);
             if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                // Don't modify the password
-                user.setAccountNonLocked(true);
-                User updatedUser = userService.saveWithoutEncodingPassword(user);
+                User updatedUser = userOpt.get();
                 updatedUser.setPassword(null); // Remove password from response
                 return ResponseEntity.ok(updatedUser);
             } else {
@@ -1,11 +1,17 @@
 package com.example.spring_boot_mongodb_docker.controller;
 
+import com.example.spring_boot_mongodb_docker.config.PasswordHashingExecutor;
+import com.example.spring_boot_mongodb_docker.config.RateLimitingFilter;
+import com.example.spring_boot_mongodb_docker.exception.ThrottledException;
 import com.example.spring_boot_mongodb_docker.model.Role;
 import com.example.spring_boot_mongodb_docker.model.User;
 import com.example.spring_boot_mongodb_docker.service.JwtService;
+import com.example.spring_boot_mongodb_docker.service.LoginAttemptTracker;
 import com.example.spring_boot_mongodb_docker.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,7 +33,6 @@ import com.example.spring_boot_mongodb_docker.config.MetricsConfig;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -39,18 +44,24 @@ public class AuthController {
     private final JwtService jwtService;
     private final UserService userService;
     private final MetricsConfig metricsConfig;
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired
     public AuthController(AuthenticationManager authenticationManager,
                           UserDetailsService userDetailsService,
                           JwtService jwtService,
                           UserService userService,
-                          MetricsConfig metricsConfig) {
+                          MetricsConfig metricsConfig,
+                          LoginAttemptTracker loginAttemptTracker,
+                          PasswordHashingExecutor passwordHashingExecutor) {
         this.authenticationManager = authenticationManager;
         this.userDetailsService = userDetailsService;
         this.jwtService = jwtService;
         this.userService = userService;
         this.metricsConfig = metricsConfig;
+        this.loginAttemptTracker = loginAttemptTracker;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
     @PostMapping("/register")
@@ -84,9 +95,9 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    // Inside the login method in AuthController.java
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@RequestBody Map<String, String> loginRequest) {
+    public ResponseEntity<?> authenticateUser(@RequestBody Map<String, String> loginRequest,
+                                              HttpServletRequest request) {
         String username = loginRequest.get("username");
         String password = loginRequest.get("password");
 
@@ -94,32 +105,33 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("message", "Username and password are required"));
         }
 
+        // Resolved like the rate limiter does, so clients behind the proxy are told apart
+        String client = RateLimitingFilter.clientAddress(request);
+
+        // Clients in backoff for this username are turned away before any lookup or hashing
+        try {
+            loginAttemptTracker.checkAllowed(username, client);
+        } catch (ThrottledException e) {
+            metricsConfig.getLoginFailureCounter().increment();
+            return throttled(e);
+        }
+        // Usernames that failed recently, from any client, queue behind everyone else for the hashing pool
+        PasswordHashingExecutor.Priority priority = loginAttemptTracker.hasRecentFailures(username)
+                ? PasswordHashingExecutor.Priority.LOW
+                : PasswordHashingExecutor.Priority.HIGH;
+
         try {
             // Record authentication time
             return metricsConfig.getAuthenticationTimer().record(() -> {
                 try {
-                    // First check if the user exists and is not locked
-                    Optional<User> userOpt = userService.findByUsername(username);
-                    if (userOpt.isPresent()) {
-                        User user = userOpt.get();
-                        if (!user.isAccountNonLocked()) {
-                            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                                    .body(Map.of("message", "Account is locked. Please contact an administrator."));
-                        }
-
-                        if (!user.isEnabled()) {
-                            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                                    .body(Map.of("message", "Account is disabled. Please contact an administrator."));
-                        }
-                    }
-
-                    // Proceed with authentication
-                    Authentication authentication = authenticationManager.authenticate(
-                            new UsernamePasswordAuthenticationToken(username, password)
+                    // Loads the user, rejects locked and disabled accounts, then checks the password
+                    Authentication authentication = passwordHashingExecutor.callWithPriority(priority, () ->
+                            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password))
                     );
 
                     // Increment success counter
                     metricsConfig.getLoginSuccessCounter().increment();
+                    loginAttemptTracker.recordSuccess(username, client);
 
                     UserDetails userDetails = (UserDetails) authentication.getPrincipal();
                     String jwt = jwtService.generateToken(userDetails);
@@ -128,14 +140,15 @@ public class AuthController {
                     response.put("token", jwt);
                     response.put("username", username);
 
-                    if (userOpt.isPresent()) {
-                        response.put("roles", userOpt.get().getRoles());
+                    if (userDetails instanceof User user) {
+                        response.put("roles", user.getRoles());
                     }
 
                     return ResponseEntity.ok(response);
                 } catch (BadCredentialsException e) {
                     // Increment failure counter
                     metricsConfig.getLoginFailureCounter().increment();
+                    loginAttemptTracker.recordFailure(username, client);
                     return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                             .body(Map.of("message", "Invalid username or password"));
                 } catch (LockedException e) {
@@ -146,6 +159,10 @@ public class AuthController {
                     metricsConfig.getLoginFailureCounter().increment();
                     return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                             .body(Map.of("message", "Account is disabled. Please contact an administrator."));
+                } catch (ThrottledException e) {
+                    // The hashing pool is saturated
+                    metricsConfig.getLoginFailureCounter().increment();
+                    return throttled(e);
                 } catch (Exception e) {
                     metricsConfig.getLoginFailureCounter().increment();
                     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -159,6 +176,11 @@ public class AuthController {
         }
     }
 
+    private ResponseEntity<?> throttled(ThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("message", e.getMessage()));
+    }
 
     @PostMapping("/create-admin")
     public ResponseEntity<?> createAdminUser(@Valid @RequestBody User user) {
@@ -1,19 +1,24 @@
 package com.example.spring_boot_mongodb_docker.controller;
 
+import com.example.spring_boot_mongodb_docker.model.CursorSlice;
 import com.example.spring_boot_mongodb_docker.model.FileDocument;
 import com.example.spring_boot_mongodb_docker.service.FileService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/files")
@@ -36,20 +41,54 @@ public class FileController {
         }
     }
 
+    // Metadata only. Passing a cursor (empty for the first slice) switches to keyset pagination;
+    // without one only the newest app.files.list.limit files are returned.
     @GetMapping
-    public ResponseEntity<List<FileDocument>> getAllFiles() {
-        List<FileDocument> files = fileService.getAllFiles();
-        return ResponseEntity.ok(files);
+    public ResponseEntity<?> getAllFiles(
+            @RequestParam(required = false) String uploadedBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        if (cursor == null) {
+            List<FileDocument> files = fileService.getAllFiles(uploadedBy, from, to);
+            return ResponseEntity.ok(files);
+        }
+
+        CursorSlice<FileDocument> slice = fileService.getFilesByCursor(uploadedBy, from, to, cursor, size);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", slice.getContent());
+        response.put("hasNext", slice.hasNext());
+        response.put("nextCursor", slice.getNextCursor());
+        return ResponseEntity.ok(response);
     }
 
+    // Supports If-None-Match/If-Modified-Since (304) and Range requests (206); Spring MVC
+    // serves the requested ranges from the resource without reading the rest of the file
     @GetMapping("/{id}")
-    public ResponseEntity<Resource> getFile(@PathVariable String id) {
-        FileDocument fileDocument = fileService.getFile(id);
+    public ResponseEntity<Resource> getFile(@PathVariable String id, WebRequest webRequest) {
+        FileDocument fileDocument = fileService.getFileMetadata(id);
 
-        return ResponseEntity.ok()
+        String eTag = fileDocument.getContentHash() != null ? "\"" + fileDocument.getContentHash() + "\"" : null;
+        long lastModified = fileDocument.getUploadDate() != null ? fileDocument.getUploadDate().getTime() : -1;
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            // 304 and its headers have already been set on the response
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .contentType(MediaType.parseMediaType(fileDocument.getContentType()))
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileDocument.getFilename() + "\"")
-                .body(new ByteArrayResource(fileDocument.getData()));
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        return response.body(fileService.getFileContent(fileDocument));
     }
 
     @DeleteMapping("/{id}")
@@ -1,22 +1,41 @@
 package com.example.spring_boot_mongodb_docker.controller;
 
 import com.example.spring_boot_mongodb_docker.config.MetricsConfig;
+import com.example.spring_boot_mongodb_docker.model.BulkIngestResult;
+import com.example.spring_boot_mongodb_docker.model.CursorSlice;
 import com.example.spring_boot_mongodb_docker.model.Item;
+import com.example.spring_boot_mongodb_docker.model.ItemPatch;
+import com.example.spring_boot_mongodb_docker.model.ItemSuggestion;
 import com.example.spring_boot_mongodb_docker.repository.ItemRepository;
+import com.example.spring_boot_mongodb_docker.service.CursorPaginationService;
+import com.example.spring_boot_mongodb_docker.service.ItemBulkIngestService;
+import com.example.spring_boot_mongodb_docker.service.ItemCacheInvalidator;
+import com.example.spring_boot_mongodb_docker.service.ItemExportService;
+import com.example.spring_boot_mongodb_docker.service.ItemSearchService;
+import com.example.spring_boot_mongodb_docker.service.ItemSuggestIndex;
+import com.example.spring_boot_mongodb_docker.service.ItemUpdateService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/items")
@@ -28,34 +47,97 @@ public class ItemController {
     @Autowired
     private MetricsConfig metricsConfig;
 
+    @Autowired
+    private ItemCacheInvalidator itemCacheInvalidator;
+
+    @Autowired
+    private CursorPaginationService cursorPaginationService;
+
+    @Autowired
+    private ItemExportService itemExportService;
+
+    @Autowired
+    private ItemBulkIngestService itemBulkIngestService;
+
+    @Autowired
+    private ItemSearchService itemSearchService;
+
+    @Autowired
+    private ItemSuggestIndex itemSuggestIndex;
+
+    @Autowired
+    private ItemUpdateService itemUpdateService;
+
     // Create with metrics
     @PostMapping
-    @CacheEvict(value = "items", allEntries = true)
     public ResponseEntity<Item> createItem(@RequestBody Item item) {
         metricsConfig.getItemCreationCounter().increment();
 
-        Item savedItem = metricsConfig.recordDatabaseOperationTime("createItem", () ->
+        // A version would make save() treat the new item as an update of an existing one
+        item.setVersion(null);
+        Item savedItem = metricsConfig.recordDatabaseOperationTime("items", "createItem", () ->
                 itemRepository.save(item)
         );
+        itemCacheInvalidator.onItemCreated(savedItem);
+        itemSuggestIndex.index(savedItem);
 
         return new ResponseEntity<>(savedItem, HttpStatus.CREATED);
     }
 
-    // Read All with Pagination
+    // Bulk create/replace from a JSON array or NDJSON stream, parsed incrementally
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkIngestResult> bulkIngestItems(HttpServletRequest request,
+                                                            @RequestParam(required = false) Integer batchSize)
+            throws IOException {
+        BulkIngestResult result = itemBulkIngestService.ingest(request.getInputStream(), batchSize);
+        metricsConfig.getItemCreationCounter().increment(result.getInserted() + result.getUpserted());
+
+        HttpStatus status = result.hasErrors() ? HttpStatus.MULTI_STATUS : HttpStatus.OK;
+        return new ResponseEntity<>(result, status);
+    }
+
+    // Read All with Pagination. Passing a cursor (empty for the first slice) switches to keyset
+    // pagination, which skips the count and does not slow down on deep pages. Offset pages are
+    // cached; see ItemCacheInvalidator for how they are kept current.
     @GetMapping
-    @Cacheable(value = "items", key = "#page + '_' + #size + '_' + #sortBy + '_' + #direction")
+    @SuppressWarnings("unchecked")
     public ResponseEntity<Map<String, Object>> getAllItems(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String direction) {
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor) {
 
+        if (!ItemCacheInvalidator.SORT_FIELDS.contains(sortBy)) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "sortBy must be one of " + ItemCacheInvalidator.SORT_FIELDS);
+            return ResponseEntity.badRequest().body(error);
+        }
         Sort.Direction sortDirection = direction.equalsIgnoreCase("desc") ?
                 Sort.Direction.DESC : Sort.Direction.ASC;
 
+        if (cursor != null) {
+            CursorSlice<Item> slice = metricsConfig.recordDatabaseOperationTime("items", "getAllItemsByCursor", () ->
+                    cursorPaginationService.findSlice(new Query(), Item.class, cursor, size, sortBy, sortDirection)
+            );
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("content", slice.getContent());
+            response.put("hasNext", slice.hasNext());
+            response.put("nextCursor", slice.getNextCursor());
+            return ResponseEntity.ok(response);
+        }
+
+        String pageKey = itemCacheInvalidator.pageKey(page, size, sortBy, sortDirection);
+        Map<String, Object> cached = itemCacheInvalidator.getPage(pageKey, Map.class);
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
+        }
+
+        long updatesBefore = itemCacheInvalidator.updateCount();
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
 
-        Page<Item> pageItems = metricsConfig.recordDatabaseOperationTime("getAllItems", () ->
+        Page<Item> pageItems = metricsConfig.recordDatabaseOperationTime("items", "getAllItems", () ->
                 itemRepository.findAll(pageable)
         );
 
@@ -65,14 +147,38 @@ public class ItemController {
         response.put("totalItems", pageItems.getTotalElements());
         response.put("totalPages", pageItems.getTotalPages());
 
+        itemCacheInvalidator.cachePage(pageKey, pageItems.getContent(), response, updatesBefore);
         return ResponseEntity.ok(response);
     }
 
+    // Export the whole collection as NDJSON, streamed from a cursor
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                // syncFlush so that each periodic flush actually reaches the client
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 64 * 1024, true);
+                itemExportService.exportNdjson(gzipStream);
+                gzipStream.finish();
+            } else {
+                itemExportService.exportNdjson(outputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"items.ndjson\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     // Read One
     @GetMapping("/{id}")
-    @Cacheable(value = "items", key = "#id")
+    @Cacheable(value = ItemCacheInvalidator.ITEMS_CACHE, key = "#id")
     public ResponseEntity<Item> getItemById(@PathVariable String id) {
-        Optional<Item> item = metricsConfig.recordDatabaseOperationTime("getItemById", () ->
+        Optional<Item> item = metricsConfig.recordDatabaseOperationTime("items", "getItemById", () ->
                 itemRepository.findById(id)
         );
 
@@ -80,54 +186,70 @@ public class ItemController {
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
-    // Update
+    // Update: replaces all fields in one atomic write. If the body carries a version, the
+    // update is rejected with 409 when the item has changed since.
     @PutMapping("/{id}")
-    @CacheEvict(value = "items", allEntries = true)
+    @CachePut(value = ItemCacheInvalidator.ITEMS_CACHE, key = "#id", unless = "#result.statusCode.value() != 200")
     public ResponseEntity<Item> updateItem(@PathVariable String id, @RequestBody Item itemDetails) {
-        return metricsConfig.recordDatabaseOperationTime("updateItem", () -> {
-            Optional<Item> optionalItem = itemRepository.findById(id);
-
-            if (optionalItem.isPresent()) {
-                Item item = optionalItem.get();
-                item.setName(itemDetails.getName());
-                item.setDescription(itemDetails.getDescription());
-                item.setPrice(itemDetails.getPrice());
-                item.setQuantity(itemDetails.getQuantity());
-
-                Item updatedItem = itemRepository.save(item);
-                return new ResponseEntity<>(updatedItem, HttpStatus.OK);
-            } else {
-                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-            }
-        });
+        return itemUpdateService.replace(id, itemDetails)
+                .map(updatedItem -> new ResponseEntity<>(updatedItem, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    // Partial update: only the given fields are set, quantityDelta is added atomically
+    // (409 if it would make the quantity negative or the version does not match)
+    @PatchMapping("/{id}")
+    @CachePut(value = ItemCacheInvalidator.ITEMS_CACHE, key = "#id", unless = "#result.statusCode.value() != 200")
+    public ResponseEntity<?> patchItem(@PathVariable String id, @RequestBody ItemPatch patch) {
+        Optional<Item> updatedItem;
+        try {
+            updatedItem = itemUpdateService.patch(id, patch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        return updatedItem.<ResponseEntity<?>>map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     // Delete
     @DeleteMapping("/{id}")
-    @CacheEvict(value = "items", allEntries = true)
     public ResponseEntity<HttpStatus> deleteItem(@PathVariable String id) {
         try {
-            metricsConfig.recordDatabaseOperationTime("deleteItem", () -> {
+            metricsConfig.recordDatabaseOperationTime("items", "deleteItem", () -> {
                 itemRepository.deleteById(id);
                 return null;
             });
+            itemCacheInvalidator.onItemDeleted(id);
+            itemSuggestIndex.remove(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    // Search with Pagination
+    // Search with Pagination. mode=text (default) matches words in name and description, most
+    // relevant first; mode=prefix matches the beginning of the name for autocomplete.
     @GetMapping("/search")
     public ResponseEntity<Map<String, Object>> searchItems(
             @RequestParam String keyword,
+            @RequestParam(defaultValue = "text") String mode,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
+        ItemSearchService.Mode searchMode;
+        try {
+            searchMode = ItemSearchService.Mode.parse(mode);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Item> pageItems = metricsConfig.recordDatabaseOperationTime("searchItems", () ->
-                itemRepository.findByNameContainingIgnoreCase(keyword, pageable)
+        Page<Item> pageItems = metricsConfig.recordDatabaseOperationTime("items", "searchItems", () ->
+                itemSearchService.search(keyword, searchMode, pageable)
         );
 
         Map<String, Object> response = new HashMap<>();
@@ -138,4 +260,24 @@ public class ItemController {
 
         return ResponseEntity.ok(response);
     }
+
+    // Type-ahead suggestions from the in-memory index; prefix search in MongoDB while the
+    // index is disabled or loading
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ItemSuggestion>> suggestItems(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        int cappedLimit = Math.max(1, Math.min(limit, 50));
+        List<ItemSuggestion> suggestions = itemSuggestIndex.suggest(q, cappedLimit);
+        if (suggestions == null) {
+            suggestions = metricsConfig.recordDatabaseOperationTime("items", "suggestItems", () ->
+                    itemSearchService.searchByPrefix(q, PageRequest.of(0, cappedLimit)).getContent().stream()
+                            .map(item -> new ItemSuggestion(item.getId(), item.getName()))
+                            .toList()
+            );
+        }
+
+        return ResponseEntity.ok(suggestions);
+    }
 }
@@ -1,29 +1,23 @@
 package com.example.spring_boot_mongodb_docker.controller;
 
-import com.example.spring_boot_mongodb_docker.model.PasswordResetToken;
 import com.example.spring_boot_mongodb_docker.model.User;
-import com.example.spring_boot_mongodb_docker.repository.PasswordResetTokenRepository;
 import com.example.spring_boot_mongodb_docker.service.EmailService;
+import com.example.spring_boot_mongodb_docker.service.PasswordResetService;
 import com.example.spring_boot_mongodb_docker.service.UserService;
-import jakarta.mail.MessagingException;
-import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/password")
 public class PasswordResetController {
 
     private final UserService userService;
-    private final PasswordResetTokenRepository tokenRepository;
+    private final PasswordResetService passwordResetService;
     private final EmailService emailService;
 
     @Value("${app.frontend-url:http://localhost:3000}")
@@ -31,10 +25,10 @@ public class PasswordResetController {
 
     @Autowired
     public PasswordResetController(UserService userService,
-                                   PasswordResetTokenRepository tokenRepository,
+                                   PasswordResetService passwordResetService,
                                    EmailService emailService) {
         this.userService = userService;
-        this.tokenRepository = tokenRepository;
+        this.passwordResetService = passwordResetService;
         this.emailService = emailService;
     }
 
@@ -46,26 +40,13 @@ public class PasswordResetController {
         if (userOpt.isPresent()) {
             User user = userOpt.get();
 
-            // Delete any existing tokens for this user
-            tokenRepository.deleteByUsername(user.getUsername());
+            // Replaces any existing token for this user
+            PasswordResetService.IssuedToken token = passwordResetService.createToken(user.getUsername());
 
-            // Create a new token
-            String token = UUID.randomUUID().toString();
-            PasswordResetToken resetToken = new PasswordResetToken(
-                    token,
-                    user.getUsername(),
-                    Instant.now().plus(24, ChronoUnit.HOURS)
-            );
-            tokenRepository.save(resetToken);
-
-            // Send email with reset link
-            String resetLink = frontendUrl + "/reset-password?token=" + token;
-            try {
-                emailService.sendPasswordResetEmail(email, resetLink);
-                return ResponseEntity.ok("Password reset email sent");
-            } catch (MessagingException e) {
-                return ResponseEntity.badRequest().body("Failed to send email: " + e.getMessage());
-            }
+            // Queue the email with the reset link; it is sent in the background
+            String resetLink = frontendUrl + "/reset-password?token=" + token.token();
+            emailService.sendPasswordResetEmail(email, resetLink, token.expiresAt());
+            return ResponseEntity.ok("Password reset email sent");
         }
 
         // Always return success to prevent user enumeration
@@ -77,27 +58,42 @@ public class PasswordResetController {
         String token = request.get("token");
         String newPassword = request.get("newPassword");
 
-        Optional<PasswordResetToken> tokenOpt = tokenRepository.findByToken(token);
-        if (tokenOpt.isPresent()) {
-            PasswordResetToken resetToken = tokenOpt.get();
-
-            if (resetToken.isExpired()) {
-                return ResponseEntity.badRequest().body("Token has expired");
-            }
-
-            // Update password
-            Optional<User> userOpt = userService.findByUsername(resetToken.getUsername());
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                userService.updatePassword(user.getUsername(), newPassword);
+        // Everything that can fail is done before the token is used up
+        if (newPassword == null) {
+            return ResponseEntity.badRequest().body("New password is required");
+        }
+        if (!isPasswordValid(newPassword)) {
+            return ResponseEntity.badRequest().body(
+                    "Password must be at least 8 characters long and contain at least one uppercase letter, " +
+                            "one lowercase letter, one number, and one special character"
+            );
+        }
+        // Made-up tokens are turned away before the new password is hashed, so they cannot be
+        // used to keep the hashing pool busy
+        if (!passwordResetService.isRedeemable(token)) {
+            return ResponseEntity.badRequest().body("Invalid or expired token");
+        }
+        String encodedPassword = userService.encodePassword(newPassword);
 
-                // Delete the used token
-                tokenRepository.delete(resetToken);
+        // Consumes the token in the same round trip that finds it; it may have been used or
+        // expired while the password was hashed
+        Optional<String> username = passwordResetService.redeem(token);
+        if (username.isEmpty()) {
+            return ResponseEntity.badRequest().body("Invalid or expired token");
+        }
 
-                return ResponseEntity.ok("Password has been reset successfully");
-            }
+        // One atomic $set of the new hash
+        if (userService.setEncodedPassword(username.get(), encodedPassword).isEmpty()) {
+            return ResponseEntity.badRequest().body("User no longer exists");
         }
+        return ResponseEntity.ok("Password has been reset successfully");
+    }
 
-        return ResponseEntity.badRequest().body("Invalid or expired token");
+    // Helper method to validate password complexity
+    private boolean isPasswordValid(String password) {
+        // Password must be at least 8 characters long and contain at least one uppercase letter,
+        // one lowercase letter, one number, and one special character
+        String passwordRegex = "^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d)(?=.*[@$!%*?&])[A-Za-z\\d@$!%*?&]{8,}$";
+        return password.matches(passwordRegex);
     }
 }
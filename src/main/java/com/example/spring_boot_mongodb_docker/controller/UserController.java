@@ -1,5 +1,6 @@
 package com.example.spring_boot_mongodb_docker.controller;
 
+import com.example.spring_boot_mongodb_docker.model.CursorSlice;
 import com.example.spring_boot_mongodb_docker.model.User;
 import com.example.spring_boot_mongodb_docker.service.JwtService;
 import com.example.spring_boot_mongodb_docker.service.UserService;
@@ -59,11 +60,23 @@ public class UserController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "username") String sortBy,
-            @RequestParam(defaultValue = "asc") String direction) {
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor) {
 
         Sort.Direction sortDirection = direction.equalsIgnoreCase("desc") ?
                 Sort.Direction.DESC : Sort.Direction.ASC;
 
+        // Keyset pagination when a cursor is supplied (empty for the first slice)
+        if (cursor != null) {
+            CursorSlice<User> slice = userService.findAllByCursor(cursor, size, sortBy, sortDirection);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("content", slice.getContent());
+            response.put("hasNext", slice.hasNext());
+            response.put("nextCursor", slice.getNextCursor());
+            return ResponseEntity.ok(response);
+        }
+
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
         Page<User> pageUsers = userService.findAllPaginated(pageable);
 
@@ -0,0 +1,7 @@
+package com.example.spring_boot_mongodb_docker.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.spring_boot_mongodb_docker.exception;
+
+import java.time.Duration;
+
+/**
+ * Rejects work the server is not willing to do right now; mapped to 429 with a Retry-After.
+ */
+public class ThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Retry-After header value: whole seconds, rounded up.
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.spring_boot_mongodb_docker.exception;
+
+public class UpdateConflictException extends RuntimeException {
+    public UpdateConflictException(String message) {
+        super(message);
+    }
+}
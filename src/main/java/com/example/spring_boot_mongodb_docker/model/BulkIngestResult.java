@@ -0,0 +1,70 @@
+package com.example.spring_boot_mongodb_docker.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkIngestResult {
+
+    private long received;
+    private long inserted;
+    private long upserted;
+    private long replaced;
+    private long failed;
+    private String parseError;
+    private List<BatchReport> batches = new ArrayList<>();
+
+    public boolean hasErrors() {
+        return failed > 0 || parseError != null;
+    }
+
+    public void addBatch(BatchReport batch) {
+        batches.add(batch);
+        inserted += batch.getInserted();
+        upserted += batch.getUpserted();
+        replaced += batch.getReplaced();
+        failed += batch.getErrors().size();
+    }
+
+    // Getters and setters
+    public long getReceived() { return received; }
+    public void setReceived(long received) { this.received = received; }
+    public long getInserted() { return inserted; }
+    public long getUpserted() { return upserted; }
+    public long getReplaced() { return replaced; }
+    public long getFailed() { return failed; }
+    public String getParseError() { return parseError; }
+    public void setParseError(String parseError) { this.parseError = parseError; }
+    public List<BatchReport> getBatches() { return batches; }
+
+    public static class BatchReport {
+
+        private int batch;
+        private long firstDocument;
+        private int size;
+        private long inserted;
+        private long upserted;
+        private long replaced;
+        private long durationMs;
+        private List<String> errors = new ArrayList<>();
+
+        public BatchReport(int batch, long firstDocument, int size) {
+            this.batch = batch;
+            this.firstDocument = firstDocument;
+            this.size = size;
+        }
+
+        // Getters and setters
+        public int getBatch() { return batch; }
+        public long getFirstDocument() { return firstDocument; }
+        public int getSize() { return size; }
+        public long getInserted() { return inserted; }
+        public void setInserted(long inserted) { this.inserted = inserted; }
+        public long getUpserted() { return upserted; }
+        public void setUpserted(long upserted) { this.upserted = upserted; }
+        public long getReplaced() { return replaced; }
+        public void setReplaced(long replaced) { this.replaced = replaced; }
+        public long getDurationMs() { return durationMs; }
+        public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+        public List<String> getErrors() { return errors; }
+    }
+}
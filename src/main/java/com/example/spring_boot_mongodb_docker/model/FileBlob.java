@@ -0,0 +1,38 @@
+package com.example.spring_boot_mongodb_docker.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A stored piece of file content, shared by every FileDocument with the same SHA-256.
+ */
+@Document(collection = "file_blobs")
+public class FileBlob {
+
+    // Hex SHA-256 of the content
+    @Id
+    private String id;
+    // Id of the GridFS file holding the content
+    private String gridFsId;
+    private long size;
+    // Number of FileDocuments referencing this blob; unreferenced blobs are removed by FileBlobSweeper
+    private long refCount;
+    private Date createdDate;
+
+    public FileBlob() {
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getGridFsId() { return gridFsId; }
+    public void setGridFsId(String gridFsId) { this.gridFsId = gridFsId; }
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+    public long getRefCount() { return refCount; }
+    public void setRefCount(long refCount) { this.refCount = refCount; }
+    public Date getCreatedDate() { return createdDate; }
+    public void setCreatedDate(Date createdDate) { this.createdDate = createdDate; }
+}
@@ -14,7 +14,12 @@ public class FileDocument {
     private String contentType;
     private long size;
     private Date uploadDate;
+    // Inline content of files stored before GridFS was introduced; null for new files
     private byte[] data;
+    // Id of the GridFS file holding the content (copied from the blob)
+    private String gridFsId;
+    // Hex SHA-256 of the content; the id of the shared FileBlob and the download ETag
+    private String contentHash;
     private String uploadedBy;
 
     public FileDocument() {
@@ -29,6 +34,17 @@ public class FileDocument {
         this.uploadedBy = uploadedBy;
     }
 
+    public FileDocument(String filename, String contentType, long size, String gridFsId,
+                        String contentHash, String uploadedBy) {
+        this.filename = filename;
+        this.contentType = contentType;
+        this.size = size;
+        this.gridFsId = gridFsId;
+        this.contentHash = contentHash;
+        this.uploadDate = new Date();
+        this.uploadedBy = uploadedBy;
+    }
+
     // Getters and setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -42,6 +58,10 @@ public class FileDocument {
     public void setUploadDate(Date uploadDate) { this.uploadDate = uploadDate; }
     public byte[] getData() { return data; }
     public void setData(byte[] data) { this.data = data; }
+    public String getGridFsId() { return gridFsId; }
+    public void setGridFsId(String gridFsId) { this.gridFsId = gridFsId; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
     public String getUploadedBy() { return uploadedBy; }
     public void setUploadedBy(String uploadedBy) { this.uploadedBy = uploadedBy; }
 }
@@ -1,7 +1,14 @@
 package com.example.spring_boot_mongodb_docker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
+
+import java.text.Normalizer;
+import java.util.Locale;
 
 @Document(collection = "items")
 public class Item {
@@ -9,15 +16,23 @@ public class Item {
     @Id
     private String id;
     private String name;
+    // Normalised lowercase copy of name, kept in sync by setName; backs prefix search
+    private String nameLower;
     private String description;
     private double price;
     private int quantity;
+    // Incremented by every update; clients send it back to reject updates based on stale data
+    @Version
+    private Long version;
+    // Relevance of the item for a text search; only set on search results, never stored
+    @TextScore
+    private Float score;
 
     // Constructors
     public Item() {}
 
     public Item(String name, String description, double price, int quantity) {
-        this.name = name;
+        setName(name);
         this.description = description;
         this.price = price;
         this.quantity = quantity;
@@ -38,6 +53,17 @@ public class Item {
 
     public void setName(String name) {
         this.name = name;
+        this.nameLower = normalize(name);
+    }
+
+    @JsonIgnore
+    public String getNameLower() {
+        return nameLower;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Float getScore() {
+        return score;
     }
 
     public String getDescription() {
@@ -63,5 +89,19 @@ public class Item {
     public void setQuantity(int quantity) {
         this.quantity = quantity;
     }
-}
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Normal form of a name for prefix search: NFKC, then lowercase independent of the default locale.
+     */
+    public static String normalize(String value) {
+        return value != null ? Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT) : null;
+    }
+}
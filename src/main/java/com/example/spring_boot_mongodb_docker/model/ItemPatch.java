@@ -0,0 +1,39 @@
+package com.example.spring_boot_mongodb_docker.model;
+
+/**
+ * Body of PATCH /api/items/{id}. Fields left null are not changed.
+ *
+ * quantityDelta is added to the stored quantity atomically, e.g. -1 to take an item out of
+ * stock; the update is rejected rather than letting the quantity drop below zero. When
+ * version is given the update only applies to that version of the item.
+ */
+public class ItemPatch {
+
+    private String name;
+    private String description;
+    private Double price;
+    private Integer quantity;
+    private Integer quantityDelta;
+    private Long version;
+
+    public ItemPatch() {
+    }
+
+    public boolean isEmpty() {
+        return name == null && description == null && price == null && quantity == null && quantityDelta == null;
+    }
+
+    // Getters and setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public Integer getQuantityDelta() { return quantityDelta; }
+    public void setQuantityDelta(Integer quantityDelta) { this.quantityDelta = quantityDelta; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -0,0 +1,19 @@
+package com.example.spring_boot_mongodb_docker.model;
+
+/**
+ * An autocomplete entry returned by GET /api/items/suggest.
+ */
+public class ItemSuggestion {
+
+    private final String id;
+    private final String name;
+
+    public ItemSuggestion(String id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getName() { return name; }
+}
@@ -0,0 +1,98 @@
+package com.example.spring_boot_mongodb_docker.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * An email waiting in, or delivered from, the outbox. Either text is set (plain text mail) or
+ * templateName and variables (HTML mail rendered when it is sent). The content is removed once
+ * the email is sent or dead, so links in it do not outlive their delivery.
+ */
+@Document(collection = "email_outbox")
+public class OutboxEmail {
+
+    public enum Status { PENDING, SENDING, SENT, DEAD }
+
+    @Id
+    private String id;
+    private String to;
+    private String subject;
+    private String text;
+    private String templateName;
+    private Map<String, Object> variables;
+
+    private Status status;
+    // Delivery attempts started so far
+    private int attempts;
+    // PENDING: earliest next attempt; SENDING: end of the claim, after which another worker may retry
+    private Instant nextAttemptAt;
+    private String claimId;
+    private String lastError;
+    private Instant createdAt;
+    private Instant sentAt;
+    // MongoDB removes the document at this time: after the retention once sent or dead, or
+    // earlier for content that expires (e.g. a reset link)
+    private Instant expireAt;
+
+    public OutboxEmail() {
+    }
+
+    public static OutboxEmail text(String to, String subject, String text) {
+        OutboxEmail email = new OutboxEmail(to, subject);
+        email.text = text;
+        return email;
+    }
+
+    public static OutboxEmail template(String to, String subject, String templateName, Map<String, Object> variables) {
+        OutboxEmail email = new OutboxEmail(to, subject);
+        email.templateName = templateName;
+        email.variables = variables;
+        return email;
+    }
+
+    private OutboxEmail(String to, String subject) {
+        Instant now = Instant.now();
+        this.to = to;
+        this.subject = subject;
+        this.status = Status.PENDING;
+        this.createdAt = now;
+        this.nextAttemptAt = now;
+    }
+
+    public boolean isHtml() {
+        return templateName != null;
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+    public String getTemplateName() { return templateName; }
+    public void setTemplateName(String templateName) { this.templateName = templateName; }
+    public Map<String, Object> getVariables() { return variables; }
+    public void setVariables(Map<String, Object> variables) { this.variables = variables; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public Instant getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(Instant nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    public String getClaimId() { return claimId; }
+    public void setClaimId(String claimId) { this.claimId = claimId; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getSentAt() { return sentAt; }
+    public void setSentAt(Instant sentAt) { this.sentAt = sentAt; }
+    public Instant getExpireAt() { return expireAt; }
+    public void setExpireAt(Instant expireAt) { this.expireAt = expireAt; }
+}
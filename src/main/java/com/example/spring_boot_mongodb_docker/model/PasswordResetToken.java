@@ -2,23 +2,31 @@ package com.example.spring_boot_mongodb_docker.model;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.Instant;
 
+/**
+ * A pending password reset. Only a SHA-256 hash of the token sent by email is stored, so the
+ * collection holds nothing that can be used to reset a password. MongoDB removes the document
+ * once expiryDate has passed.
+ */
 @Document(collection = "password_reset_tokens")
 public class PasswordResetToken {
 
     @Id
     private String id;
-    private String token;
+    // Stored as "token", the field the unique index has always been on
+    @Field("token")
+    private String tokenHash;
     private String username;
     private Instant expiryDate;
 
     public PasswordResetToken() {
     }
 
-    public PasswordResetToken(String token, String username, Instant expiryDate) {
-        this.token = token;
+    public PasswordResetToken(String tokenHash, String username, Instant expiryDate) {
+        this.tokenHash = tokenHash;
         this.username = username;
         this.expiryDate = expiryDate;
     }
@@ -30,11 +38,10 @@ public class PasswordResetToken {
     // Getters and setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
-    public String getToken() { return token; }
-    public void setToken(String token) { this.token = token; }
+    public String getTokenHash() { return tokenHash; }
+    public void setTokenHash(String tokenHash) { this.tokenHash = tokenHash; }
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
     public Instant getExpiryDate() { return expiryDate; }
     public void setExpiryDate(Instant expiryDate) { this.expiryDate = expiryDate; }
 }
-
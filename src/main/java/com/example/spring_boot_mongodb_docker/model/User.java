@@ -24,6 +24,8 @@ public class User implements UserDetails {
     private boolean accountNonLocked = true;
     private boolean credentialsNonExpired = true;
     private boolean enabled = true;
+    // Bumped whenever tokens issued so far must stop working (role change, lock, delete)
+    private long securityVersion;
 
     // Constructors
     public User() {
@@ -126,4 +128,12 @@ public class User implements UserDetails {
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
     }
+
+    public long getSecurityVersion() {
+        return securityVersion;
+    }
+
+    public void setSecurityVersion(long securityVersion) {
+        this.securityVersion = securityVersion;
+    }
 }
@@ -0,0 +1,110 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.exception.InvalidCursorException;
+import com.example.spring_boot_mongodb_docker.model.CursorSlice;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination over any mapped collection.
+ *
+ * Instead of skip/limit and a count, each slice is fetched with a range predicate on
+ * (sortField, _id) starting after the last document of the previous slice, so the cost of a
+ * request does not depend on how deep into the collection the client is.
+ */
+@Service
+public class CursorPaginationService {
+
+    private static final String ID_FIELD = "_id";
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxSize;
+
+    @Autowired
+    public CursorPaginationService(MongoTemplate mongoTemplate,
+                                   @Value("${app.pagination.cursor.max-size:1000}") int maxSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Fetches the slice following {@code cursor} (or the first slice if it is null or empty).
+     * The given query may carry filter criteria and a projection; it is modified in place.
+     * The size must be between 1 and max-size.
+     */
+    public <T> CursorSlice<T> findSlice(Query query, Class<T> type, String cursor,
+                                        int size, String sortBy, Sort.Direction direction) {
+        // A limit of zero or less would mean no limit at all in MongoDB
+        if (size < 1 || size > maxSize) {
+            throw new InvalidCursorException("Page size must be between 1 and " + maxSize);
+        }
+        String sortField = "id".equals(sortBy) ? ID_FIELD : sortBy;
+        String directionName = direction.name();
+
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor position = PageCursor.decode(cursor);
+            if (!position.getSortBy().equals(sortField) || !position.getDirection().equals(directionName)) {
+                throw new InvalidCursorException("Cursor does not match the requested sort order");
+            }
+            query.addCriteria(seekCriteria(sortField, direction, position));
+        }
+
+        query.with(ID_FIELD.equals(sortField)
+                ? Sort.by(direction, ID_FIELD)
+                : Sort.by(direction, sortField).and(Sort.by(direction, ID_FIELD)));
+        // One extra document tells us whether there is a next slice without counting
+        query.limit(size + 1);
+
+        List<T> results = mongoTemplate.find(query, type);
+        boolean hasNext = results.size() > size;
+        if (hasNext) {
+            results = results.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Document last = new Document();
+            mongoTemplate.getConverter().write(results.get(results.size() - 1), last);
+            Object sortValue = ID_FIELD.equals(sortField) ? null : last.get(sortField);
+            nextCursor = new PageCursor(sortField, directionName, sortValue, String.valueOf(last.get(ID_FIELD))).encode();
+        }
+
+        return new CursorSlice<>(results, size, hasNext, nextCursor);
+    }
+
+    private Criteria seekCriteria(String sortField, Sort.Direction direction, PageCursor position) {
+        boolean ascending = direction.isAscending();
+        Criteria idAfter = ascending
+                ? Criteria.where(ID_FIELD).gt(position.getId())
+                : Criteria.where(ID_FIELD).lt(position.getId());
+
+        if (ID_FIELD.equals(sortField)) {
+            return idAfter;
+        }
+
+        Object value = position.getSortValue();
+        Criteria sameValue = new Criteria().andOperator(Criteria.where(sortField).is(value), idAfter);
+
+        if (value == null) {
+            // Nulls sort lowest: ascending continues into the non-null values, descending only has more nulls
+            return ascending
+                    ? new Criteria().orOperator(Criteria.where(sortField).ne(null), sameValue)
+                    : sameValue;
+        }
+
+        if (ascending) {
+            return new Criteria().orOperator(Criteria.where(sortField).gt(value), sameValue);
+        }
+        // Descending still has the null/missing values to come after every non-null one
+        return new Criteria().orOperator(Criteria.where(sortField).lt(value), sameValue,
+                Criteria.where(sortField).is(null));
+    }
+}
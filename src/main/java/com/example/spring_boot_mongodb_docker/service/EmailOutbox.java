@@ -0,0 +1,173 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.OutboxEmail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The email_outbox collection. Emails are stored before anything is sent, so a mail accepted by
+ * the API survives SMTP outages and restarts.
+ *
+ * Workers claim due emails in batches. A claim moves nextAttemptAt to the end of the claim
+ * timeout, so emails of a worker that died mid-batch become due again and are retried by
+ * another one; delivery is therefore at least once. Failed emails are retried with exponential
+ * backoff and kept as DEAD after max-attempts.
+ *
+ * The body (text or template variables) may hold secrets such as reset links, so it is removed
+ * as soon as an email is sent or dead; the rest is kept for sent-retention or dead-retention,
+ * or until an earlier expireAt given when the email was queued.
+ */
+@Service
+public class EmailOutbox {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration claimTimeout;
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Duration sentRetention;
+    private final Duration deadRetention;
+
+    @Autowired
+    public EmailOutbox(MongoTemplate mongoTemplate,
+                       @Value("${app.email.outbox.claim-timeout:5m}") Duration claimTimeout,
+                       @Value("${app.email.outbox.max-attempts:8}") int maxAttempts,
+                       @Value("${app.email.outbox.base-delay:30s}") Duration baseDelay,
+                       @Value("${app.email.outbox.max-delay:1h}") Duration maxDelay,
+                       @Value("${app.email.outbox.sent-retention:7d}") Duration sentRetention,
+                       @Value("${app.email.outbox.dead-retention:30d}") Duration deadRetention) {
+        this.mongoTemplate = mongoTemplate;
+        this.claimTimeout = claimTimeout;
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.sentRetention = sentRetention;
+        this.deadRetention = deadRetention;
+    }
+
+    public OutboxEmail enqueue(OutboxEmail email) {
+        return mongoTemplate.insert(email);
+    }
+
+    /**
+     * Claims up to limit due emails, oldest due first, and counts an attempt for each. The
+     * returned emails share one claimId. Three round trips whatever the batch size.
+     */
+    public List<OutboxEmail> claim(int limit) {
+        Instant now = Instant.now();
+        Query candidates = new Query(due(now)).with(Sort.by("nextAttemptAt")).limit(limit);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, OutboxEmail.class).stream()
+                .map(OutboxEmail::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // The due condition is checked again per document, so emails another worker claimed
+        // in the meantime are left out
+        String claimId = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(new Query(due(now).and("_id").in(ids)),
+                new Update()
+                        .set("status", OutboxEmail.Status.SENDING)
+                        .set("claimId", claimId)
+                        .set("nextAttemptAt", now.plus(claimTimeout))
+                        .inc("attempts", 1),
+                OutboxEmail.class);
+        return mongoTemplate.find(new Query(Criteria.where("claimId").is(claimId)), OutboxEmail.class);
+    }
+
+    public void markSent(String claimId, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids).and("claimId").is(claimId)),
+                new Update()
+                        .set("status", OutboxEmail.Status.SENT)
+                        .set("sentAt", now)
+                        // $min keeps an earlier expiry set when the email was queued
+                        .min("expireAt", now.plus(sentRetention))
+                        .unset("text")
+                        .unset("variables")
+                        .unset("claimId")
+                        .unset("lastError"),
+                OutboxEmail.class);
+    }
+
+    /**
+     * Schedules the next attempt, or dead-letters the email when it failed permanently or ran
+     * out of attempts. Returns true if it was dead-lettered.
+     */
+    public boolean markFailed(OutboxEmail email, String error, boolean permanent) {
+        boolean dead = permanent || email.getAttempts() >= maxAttempts;
+        Update update = new Update().set("lastError", truncate(error)).unset("claimId");
+        if (dead) {
+            update.set("status", OutboxEmail.Status.DEAD)
+                    .min("expireAt", Instant.now().plus(deadRetention))
+                    .unset("text")
+                    .unset("variables");
+        } else {
+            update.set("status", OutboxEmail.Status.PENDING)
+                    .set("nextAttemptAt", Instant.now().plus(retryDelay(email.getAttempts())));
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(email.getId()).and("claimId").is(email.getClaimId())),
+                update, OutboxEmail.class);
+        return dead;
+    }
+
+    /**
+     * Emails not sent yet, including those being sent right now.
+     */
+    public long countUnsent() {
+        return mongoTemplate.count(new Query(Criteria.where("status")
+                .in(OutboxEmail.Status.PENDING, OutboxEmail.Status.SENDING)), OutboxEmail.class);
+    }
+
+    public long countDead() {
+        return mongoTemplate.count(new Query(Criteria.where("status").is(OutboxEmail.Status.DEAD)), OutboxEmail.class);
+    }
+
+    /**
+     * How long the most overdue email has been waiting for a worker, zero if none is overdue.
+     */
+    public Duration oldestDueAge() {
+        Instant now = Instant.now();
+        Query oldest = new Query(due(now)).with(Sort.by("nextAttemptAt")).limit(1);
+        oldest.fields().include("nextAttemptAt");
+        OutboxEmail email = mongoTemplate.findOne(oldest, OutboxEmail.class);
+        return email != null ? Duration.between(email.getNextAttemptAt(), now) : Duration.ZERO;
+    }
+
+    // base * 2^(attempts - 1), capped; the shift is bounded to avoid overflow
+    Duration retryDelay(int attempts) {
+        long delay = baseDelay.toMillis() << Math.min(Math.max(attempts - 1, 0), 30);
+        return Duration.ofMillis(Math.min(maxDelay.toMillis(), delay));
+    }
+
+    private static Criteria due(Instant now) {
+        return Criteria.where("status").in(OutboxEmail.Status.PENDING, OutboxEmail.Status.SENDING)
+                .and("nextAttemptAt").lte(now);
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.OutboxEmail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the email outbox. Each worker thread claims a batch of due emails, renders them (one
+ * pass per template) and sends the whole batch over a single SMTP connection, then records per
+ * email whether it was sent or has to be retried.
+ *
+ * Workers poll every poll-interval and are woken up straight away when an email is queued on
+ * this node.
+ */
+@Component
+public class EmailOutboxWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxWorker.class);
+
+    private final EmailOutbox outbox;
+    private final JavaMailSender mailSender;
+    private final EmailTemplateRenderer templateRenderer;
+    private final String fromEmail;
+    private final int workers;
+    private final int batchSize;
+    private final Duration pollInterval;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private boolean signalled;
+
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter deadCounter;
+    private final Timer batchTimer;
+    private final Timer deliveryDelayTimer;
+    private final AtomicLong unsent = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+    private final AtomicLong oldestDueMillis = new AtomicLong();
+
+    @Autowired
+    public EmailOutboxWorker(EmailOutbox outbox,
+                             JavaMailSender mailSender,
+                             EmailTemplateRenderer templateRenderer,
+                             MeterRegistry meterRegistry,
+                             @Value("${spring.mail.username:noreply@example.com}") String fromEmail,
+                             @Value("${app.email.outbox.workers:2}") int workers,
+                             @Value("${app.email.outbox.batch-size:50}") int batchSize,
+                             @Value("${app.email.outbox.poll-interval:2s}") Duration pollInterval) {
+        this.outbox = outbox;
+        this.mailSender = mailSender;
+        this.templateRenderer = templateRenderer;
+        this.fromEmail = fromEmail;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+
+        this.sentCounter = Counter.builder("app.email.sent")
+                .description("Emails handed over to the SMTP server")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("app.email.failed")
+                .tag("outcome", "retry")
+                .description("Failed email deliveries")
+                .register(meterRegistry);
+        this.deadCounter = Counter.builder("app.email.failed")
+                .tag("outcome", "dead")
+                .description("Failed email deliveries")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("app.email.batch.time")
+                .description("Time to render and send one batch over one SMTP connection")
+                .register(meterRegistry);
+        this.deliveryDelayTimer = Timer.builder("app.email.delivery.delay")
+                .description("Time from queueing an email to sending it")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("app.email.outbox.unsent", unsent, AtomicLong::get)
+                .description("Emails in the outbox not sent yet")
+                .register(meterRegistry);
+        Gauge.builder("app.email.outbox.dead", dead, AtomicLong::get)
+                .description("Emails given up on")
+                .register(meterRegistry);
+        TimeGauge.builder("app.email.outbox.lag", oldestDueMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("How long the most overdue email has been waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (workers <= 0) {
+            logger.info("Email outbox workers disabled");
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::run);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        running = false;
+        wakeUp();
+        // A batch still being sent after this is claimed again once its claim times out
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Lets idle workers pick up newly queued emails without waiting for the next poll.
+     */
+    public void wakeUp() {
+        lock.lock();
+        try {
+            signalled = true;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Claims and sends one batch. Returns the number of emails claimed.
+     */
+    public int processBatch() {
+        List<OutboxEmail> batch = outbox.claim(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Timer.Sample sample = Timer.start();
+
+        Map<OutboxEmail, String> html = renderHtml(batch);
+        Map<MimeMessage, OutboxEmail> messages = new LinkedHashMap<>();
+        for (OutboxEmail email : batch) {
+            if (email.isHtml() && !html.containsKey(email)) {
+                continue;
+            }
+            try {
+                messages.put(toMimeMessage(email, html.get(email)), email);
+            } catch (Exception e) {
+                // An address that cannot be parsed will not parse next time either
+                failed(email, e, true);
+            }
+        }
+
+        Map<Object, Exception> failures = send(messages.keySet());
+        Instant now = Instant.now();
+        List<String> sentIds = new ArrayList<>();
+        messages.forEach((message, email) -> {
+            Exception failure = failures.get(message);
+            if (failure != null) {
+                failed(email, failure, false);
+            } else {
+                sentIds.add(email.getId());
+                deliveryDelayTimer.record(Duration.between(email.getCreatedAt(), now));
+            }
+        });
+        outbox.markSent(batch.get(0).getClaimId(), sentIds);
+        sentCounter.increment(sentIds.size());
+
+        sample.stop(batchTimer);
+        logger.debug("Email batch of {}: {} sent", batch.size(), sentIds.size());
+        return batch.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.metrics-interval:30s}")
+    public void refreshBacklogMetrics() {
+        try {
+            unsent.set(outbox.countUnsent());
+            dead.set(outbox.countDead());
+            oldestDueMillis.set(outbox.oldestDueAge().toMillis());
+        } catch (Exception e) {
+            logger.warn("Failed to refresh email outbox metrics", e);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                // A full batch means there is probably more waiting
+                if (processBatch() < batchSize) {
+                    awaitWork();
+                }
+            } catch (Exception e) {
+                logger.error("Email outbox worker failed", e);
+                awaitWork();
+            }
+        }
+    }
+
+    private void awaitWork() {
+        lock.lock();
+        try {
+            if (!signalled && running) {
+                workAvailable.await(pollInterval.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            signalled = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // JavaMailSender sends all messages of one call over the same connection
+    private Map<Object, Exception> send(Collection<MimeMessage> messages) {
+        if (messages.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+            return Map.of();
+        } catch (MailSendException e) {
+            // Lists the messages that failed; the others were sent
+            if (!e.getFailedMessages().isEmpty()) {
+                return e.getFailedMessages();
+            }
+            return allFailed(messages, e);
+        } catch (MailException e) {
+            // e.g. authentication failed, nothing was sent
+            return allFailed(messages, e);
+        }
+    }
+
+    // One pass per template over all of the batch's emails using it. Emails that cannot be
+    // rendered are dead-lettered and left out of the result.
+    private Map<OutboxEmail, String> renderHtml(List<OutboxEmail> batch) {
+        Map<OutboxEmail, String> rendered = new IdentityHashMap<>();
+        Map<String, List<OutboxEmail>> byTemplate = batch.stream()
+                .filter(OutboxEmail::isHtml)
+                .collect(Collectors.groupingBy(OutboxEmail::getTemplateName, LinkedHashMap::new, Collectors.toList()));
+        byTemplate.forEach((templateName, emails) -> {
+            try {
+                List<String> html = templateRenderer.renderAll(templateName,
+                        emails.stream().map(EmailOutboxWorker::variables).toList());
+                for (int i = 0; i < emails.size(); i++) {
+                    rendered.put(emails.get(i), html.get(i));
+                }
+            } catch (Exception e) {
+                // Render one by one to find the emails that fail
+                for (OutboxEmail email : emails) {
+                    try {
+                        rendered.put(email, templateRenderer.render(templateName, variables(email)));
+                    } catch (Exception renderFailure) {
+                        // A template that cannot be rendered will not render next time either
+                        failed(email, renderFailure, true);
+                    }
+                }
+            }
+        });
+        return rendered;
+    }
+
+    private MimeMessage toMimeMessage(OutboxEmail email, String html) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, email.isHtml(), "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getTo());
+        helper.setSubject(email.getSubject());
+        if (email.isHtml()) {
+            helper.setText(html, true);
+        } else {
+            helper.setText(email.getText());
+        }
+        return message;
+    }
+
+    private void failed(OutboxEmail email, Exception failure, boolean permanent) {
+        if (outbox.markFailed(email, failure.toString(), permanent)) {
+            deadCounter.increment();
+            logger.error("Giving up on email {} to {} after {} attempts", email.getId(), email.getTo(),
+                    email.getAttempts(), failure);
+        } else {
+            retriedCounter.increment();
+            logger.warn("Failed to send email {} to {}, will retry: {}", email.getId(), email.getTo(), failure.toString());
+        }
+    }
+
+    private static Map<String, Object> variables(OutboxEmail email) {
+        return email.getVariables() != null ? email.getVariables() : Map.of();
+    }
+
+    private static Map<Object, Exception> allFailed(Collection<MimeMessage> messages, Exception failure) {
+        Map<Object, Exception> failures = new HashMap<>();
+        messages.forEach(message -> failures.put(message, failure));
+        return failures;
+    }
+}
@@ -1,99 +1,61 @@
 package com.example.spring_boot_mongodb_docker.service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.example.spring_boot_mongodb_docker.model.OutboxEmail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Queues emails in the outbox; EmailOutboxWorker sends them. The methods return as soon as the
+ * email is stored, and delivery failures are retried instead of being lost.
+ */
 @Service
 public class EmailService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
-    private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    public static final String PASSWORD_RESET_TEMPLATE = "email/password-reset";
 
-    @Value("${spring.mail.username:noreply@example.com}")
-    private String fromEmail;
+    private final EmailOutbox outbox;
+    private final EmailOutboxWorker outboxWorker;
 
     @Autowired
-    public EmailService(JavaMailSender mailSender, TemplateEngine templateEngine) {
-        this.mailSender = mailSender;
-        this.templateEngine = templateEngine;
+    public EmailService(EmailOutbox outbox, EmailOutboxWorker outboxWorker) {
+        this.outbox = outbox;
+        this.outboxWorker = outboxWorker;
     }
 
-    @Async
     public void sendSimpleEmail(String to, String subject, String text) {
-        try {
-            logger.info("Sending simple email to: {}", to);
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            mailSender.send(message);
-            logger.info("Simple email sent successfully to: {}", to);
-        } catch (Exception e) {
-            logger.error("Failed to send simple email to: {}", to, e);
-            throw new RuntimeException("Failed to send email", e);
-        }
+        enqueue(OutboxEmail.text(to, subject, text));
     }
 
-    @Async
-    public void sendHtmlEmail(String to, String subject, String templateName, Map<String, Object> variables)
-            throws MessagingException {
-        try {
-            logger.info("Sending HTML email to: {}", to);
-
-            // Prepare the context for Thymeleaf template
-            Context context = new Context();
-            variables.forEach(context::setVariable);
-
-            // Process the template
-            String htmlContent = templateEngine.process(templateName, context);
-
-            // Create the email message
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-
-            // Send the email
-            mailSender.send(message);
-            logger.info("HTML email sent successfully to: {}", to);
-        } catch (Exception e) {
-            logger.error("Failed to send HTML email to: {}", to, e);
-            throw new MessagingException("Failed to send HTML email", e);
-        }
+    /**
+     * The template is rendered when the email is sent, so the variables are stored with it and
+     * must be values MongoDB can store (strings, numbers, dates, maps and lists of those).
+     */
+    public void sendHtmlEmail(String to, String subject, String templateName, Map<String, Object> variables) {
+        enqueue(OutboxEmail.template(to, subject, templateName, new HashMap<>(variables)));
     }
 
-    @Async
-    public void sendPasswordResetEmail(String to, String resetLink) throws MessagingException {
+    /**
+     * The email is removed from the outbox, sent or not, once the link has expired.
+     */
+    public void sendPasswordResetEmail(String to, String resetLink, Instant linkExpiresAt) {
         logger.info("Sending password reset email to: {}", to);
+        OutboxEmail email = OutboxEmail.template(to, "Password Reset Request", PASSWORD_RESET_TEMPLATE,
+                new HashMap<>(Map.of("resetLink", resetLink)));
+        email.setExpireAt(linkExpiresAt);
+        enqueue(email);
+    }
 
-        // For simple implementation without templates
-        String subject = "Password Reset Request";
-        String message = "Hello,\n\nYou have requested to reset your password. "
-                + "Please click on the link below to reset your password:\n\n"
-                + resetLink + "\n\n"
-                + "This link will expire in 30 minutes.\n\n"
-                + "If you did not request a password reset, please ignore this email.\n\n"
-                + "Regards,\nThe Team";
-
-        sendSimpleEmail(to, subject, message);
+    private void enqueue(OutboxEmail email) {
+        outbox.enqueue(email);
+        logger.info("Queued email {} to: {}", email.getId(), email.getTo());
+        outboxWorker.wakeUp();
     }
 }
-
@@ -0,0 +1,168 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the email templates under resources/templates/email.
+ *
+ * Uses its own template engine whose parsed templates are cached for the lifetime of the
+ * application, independent of spring.thymeleaf.cache (which devtools turns off), and compiles
+ * SpEL expressions. Every template is parsed once at startup, so a broken template shows up in
+ * the log straight away and the first email does not pay for parsing.
+ *
+ * Output is written into a per-thread buffer that is reused from one render to the next.
+ * renderAll renders one template for many recipients with a single reused context.
+ */
+@Component
+public class EmailTemplateRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateRenderer.class);
+
+    private static final String PREFIX = "templates/";
+    private static final String SUFFIX = ".html";
+    private static final String EMAIL_TEMPLATES = "classpath*:" + PREFIX + "email/*" + SUFFIX;
+
+    private static final int INITIAL_BUFFER_CAPACITY = 8 * 1024;
+    // A buffer grown beyond this by an unusually large email is not kept around
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 256 * 1024;
+
+    private final TemplateEngine templateEngine;
+    private final ThreadLocal<BufferWriter> buffers = ThreadLocal.withInitial(BufferWriter::new);
+
+    @Autowired
+    public EmailTemplateRenderer(@Value("${app.email.templates.preload:true}") boolean preload) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix(PREFIX);
+        resolver.setSuffix(SUFFIX);
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null);
+
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setEnableSpringELCompiler(true);
+        this.templateEngine = engine;
+
+        if (preload) {
+            preload();
+        }
+    }
+
+    /**
+     * Parses every email template into the cache. Returns the number of templates loaded.
+     */
+    public int preload() {
+        long start = System.nanoTime();
+        int loaded = 0;
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(EMAIL_TEMPLATES)) {
+                String filename = resource.getFilename();
+                if (filename == null) {
+                    continue;
+                }
+                String templateName = "email/" + filename.substring(0, filename.length() - SUFFIX.length());
+                try {
+                    // Parsing caches the template; rendering without variables is only the trigger
+                    render(templateName, Map.of());
+                    loaded++;
+                } catch (Exception e) {
+                    logger.error("Failed to load email template {}", templateName, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to list email templates", e);
+        }
+        logger.info("Loaded {} email templates in {}ms", loaded, (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    public String render(String templateName, Map<String, Object> variables) {
+        return renderAll(templateName, List.of(variables)).get(0);
+    }
+
+    /**
+     * Renders the template once per variables map, in order.
+     */
+    public List<String> renderAll(String templateName, List<Map<String, Object>> variables) {
+        BufferWriter writer = buffers.get();
+        Context context = new Context();
+        List<String> rendered = new ArrayList<>(variables.size());
+        try {
+            for (Map<String, Object> recipientVariables : variables) {
+                context.clearVariables();
+                context.setVariables(recipientVariables);
+                templateEngine.process(templateName, context, writer);
+                rendered.add(writer.drain());
+            }
+        } finally {
+            writer.release();
+        }
+        return rendered;
+    }
+
+    // Unsynchronized replacement for StringWriter; only ever used by its own thread
+    private static final class BufferWriter extends Writer {
+
+        private StringBuilder buffer = new StringBuilder(INITIAL_BUFFER_CAPACITY);
+
+        @Override
+        public void write(int c) {
+            buffer.append((char) c);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            buffer.append(str, offset, offset + length);
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            buffer.append(csq);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        String drain() {
+            String content = buffer.toString();
+            buffer.setLength(0);
+            return content;
+        }
+
+        void release() {
+            buffer.setLength(0);
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+                buffer = new StringBuilder(INITIAL_BUFFER_CAPACITY);
+            }
+        }
+    }
+}
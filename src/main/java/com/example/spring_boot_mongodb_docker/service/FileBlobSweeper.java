@@ -0,0 +1,37 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically garbage-collects file content that is no longer referenced by any file.
+ * Deletes only decrement reference counts, so they never wait on GridFS chunk removal.
+ */
+@Component
+public class FileBlobSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileBlobSweeper.class);
+
+    private final FileService fileService;
+
+    @Autowired
+    public FileBlobSweeper(FileService fileService) {
+        this.fileService = fileService;
+    }
+
+    @Scheduled(initialDelayString = "${app.files.blob-sweep.initial-delay:PT1M}",
+            fixedDelayString = "${app.files.blob-sweep.interval:PT10M}")
+    public void sweep() {
+        try {
+            int removed = fileService.sweepUnreferencedBlobs();
+            if (removed > 0) {
+                logger.info("Removed {} unreferenced file blobs", removed);
+            }
+        } catch (Exception e) {
+            logger.error("File blob sweep failed", e);
+        }
+    }
+}
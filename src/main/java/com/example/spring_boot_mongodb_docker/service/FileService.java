@@ -1,39 +1,92 @@
 package com.example.spring_boot_mongodb_docker.service;
 
+import com.example.spring_boot_mongodb_docker.model.CursorSlice;
+import com.example.spring_boot_mongodb_docker.model.FileBlob;
 import com.example.spring_boot_mongodb_docker.model.FileDocument;
 import com.example.spring_boot_mongodb_docker.repository.FileRepository;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
 import java.util.List;
 
 @Service
 public class FileService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileService.class);
+
     private final FileRepository fileRepository;
+    private final GridFsTemplate gridFsTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final GridFSBucket gridFsBucket;
+    private final CursorPaginationService cursorPaginationService;
+    private final int listLimit;
 
     @Autowired
-    public FileService(FileRepository fileRepository) {
+    public FileService(FileRepository fileRepository,
+                       GridFsTemplate gridFsTemplate,
+                       MongoTemplate mongoTemplate,
+                       MongoDatabaseFactory mongoDatabaseFactory,
+                       CursorPaginationService cursorPaginationService,
+                       @Value("${app.files.list.limit:1000}") int listLimit) {
         this.fileRepository = fileRepository;
+        this.gridFsTemplate = gridFsTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.cursorPaginationService = cursorPaginationService;
+        this.listLimit = listLimit;
+        // Same default bucket as GridFsTemplate
+        this.gridFsBucket = GridFSBuckets.create(mongoDatabaseFactory.getMongoDatabase());
     }
 
     public String storeFile(MultipartFile file) throws IOException {
         String filename = file.getOriginalFilename();
         String contentType = file.getContentType();
         long size = file.getSize();
-        byte[] data = file.getBytes();
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String uploadedBy = authentication.getName();
 
-        FileDocument fileDocument = new FileDocument(filename, contentType, size, data, uploadedBy);
-        FileDocument savedFile = fileRepository.save(fileDocument);
+        // Content is stored once per distinct SHA-256; repeated uploads only add a reference
+        String contentHash = hash(file);
+        FileBlob blob = acquireBlob(contentHash, size, file, filename, contentType);
 
-        return savedFile.getId();
+        FileDocument fileDocument = new FileDocument(filename, contentType, size, blob.getGridFsId(),
+                contentHash, uploadedBy);
+        try {
+            return fileRepository.save(fileDocument).getId();
+        } catch (RuntimeException e) {
+            releaseBlob(contentHash, blob.getGridFsId());
+            throw e;
+        }
     }
 
     public FileDocument getFile(String id) {
@@ -41,18 +94,187 @@ public class FileService {
                 .orElseThrow(() -> new RuntimeException("File not found with id: " + id));
     }
 
-    public List<FileDocument> getAllFiles() {
-        List<FileDocument> files = fileRepository.findAll();
-        // Remove binary data from the response to reduce payload size
-        files.forEach(file -> file.setData(null));
-        return files;
+    /**
+     * Loads a file's metadata without its inline content (only present on files not yet migrated to GridFS).
+     */
+    public FileDocument getFileMetadata(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().exclude("data");
+        FileDocument fileDocument = mongoTemplate.findOne(query, FileDocument.class);
+        if (fileDocument == null) {
+            throw new RuntimeException("File not found with id: " + id);
+        }
+        return fileDocument;
+    }
+
+    /**
+     * Returns the file content as a resource that is read from storage as it is written out.
+     */
+    public Resource getFileContent(FileDocument fileDocument) {
+        if (fileDocument.getGridFsId() == null) {
+            // Not migrated to GridFS yet
+            byte[] data = fileDocument.getData() != null ? fileDocument.getData() : getFile(fileDocument.getId()).getData();
+            return new ByteArrayResource(data);
+        }
+
+        return new GridFsContentResource(gridFsBucket, new ObjectId(fileDocument.getGridFsId()),
+                fileDocument.getFilename(), fileDocument.getSize());
+    }
+
+    /**
+     * Lists file metadata, newest first. The inline content of legacy files is excluded by
+     * the query projection, so it is never read from MongoDB. At most list-limit files are
+     * returned; clients needing more have to page with {@link #getFilesByCursor}.
+     */
+    public List<FileDocument> getAllFiles(String uploadedBy, Date from, Date to) {
+        Query query = metadataQuery(uploadedBy, from, to);
+        query.with(Sort.by(Sort.Direction.DESC, "uploadDate"));
+        query.limit(listLimit);
+        return mongoTemplate.find(query, FileDocument.class);
+    }
+
+    public CursorSlice<FileDocument> getFilesByCursor(String uploadedBy, Date from, Date to, String cursor, int size) {
+        return cursorPaginationService.findSlice(metadataQuery(uploadedBy, from, to), FileDocument.class,
+                cursor, size, "uploadDate", Sort.Direction.DESC);
+    }
+
+    private Query metadataQuery(String uploadedBy, Date from, Date to) {
+        Query query = new Query();
+        if (uploadedBy != null) {
+            query.addCriteria(Criteria.where("uploadedBy").is(uploadedBy));
+        }
+        if (from != null || to != null) {
+            Criteria uploadDate = Criteria.where("uploadDate");
+            if (from != null) {
+                uploadDate.gte(from);
+            }
+            if (to != null) {
+                uploadDate.lt(to);
+            }
+            query.addCriteria(uploadDate);
+        }
+        query.fields().exclude("data");
+        return query;
     }
 
     public boolean deleteFile(String id) {
-        if (fileRepository.existsById(id)) {
-            fileRepository.deleteById(id);
-            return true;
+        return fileRepository.findById(id)
+                .map(fileDocument -> {
+                    fileRepository.deleteById(id);
+                    String gridFsId = fileDocument.getGridFsId();
+                    if (gridFsId != null && !releaseBlob(fileDocument.getContentHash(), gridFsId)) {
+                        // Stored before content was shared between files, so the GridFS file is ours alone
+                        gridFsTemplate.delete(gridFsQuery(gridFsId));
+                    }
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Moves the content of a file stored inline in the document into GridFS.
+     */
+    public void migrateToGridFs(FileDocument fileDocument) throws IOException {
+        ByteArrayResource content = new ByteArrayResource(fileDocument.getData());
+        String contentHash = hash(content);
+        FileBlob blob = acquireBlob(contentHash, fileDocument.getData().length, content,
+                fileDocument.getFilename(), fileDocument.getContentType());
+
+        fileDocument.setGridFsId(blob.getGridFsId());
+        fileDocument.setContentHash(contentHash);
+        fileDocument.setData(null);
+        try {
+            fileRepository.save(fileDocument);
+        } catch (RuntimeException e) {
+            releaseBlob(contentHash, blob.getGridFsId());
+            throw e;
+        }
+        logger.info("Migrated file {} ({} bytes) to GridFS", fileDocument.getId(), fileDocument.getSize());
+    }
+
+    /**
+     * Removes blobs no file references any more, together with their GridFS content.
+     * Each blob is claimed with an atomic findAndRemove, so concurrent sweeps (e.g. from
+     * several instances) never delete the same content twice, and a blob whose count went
+     * back up before the sweep reached it is left alone.
+     */
+    public int sweepUnreferencedBlobs() {
+        Query unreferenced = Query.query(Criteria.where("refCount").lte(0));
+        int removed = 0;
+        FileBlob blob;
+        while ((blob = mongoTemplate.findAndRemove(unreferenced, FileBlob.class)) != null) {
+            gridFsTemplate.delete(gridFsQuery(blob.getGridFsId()));
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Adds a reference to the blob with the given hash, uploading the content only when no
+     * such blob exists yet.
+     */
+    private FileBlob acquireBlob(String contentHash, long size, InputStreamSource content,
+                                 String filename, String contentType) throws IOException {
+        Query byHash = Query.query(Criteria.where("_id").is(contentHash));
+        FileBlob blob = mongoTemplate.findAndModify(byHash, new Update().inc("refCount", 1),
+                FindAndModifyOptions.options().returnNew(true), FileBlob.class);
+        if (blob != null) {
+            logger.debug("Reusing stored content {} for {}", contentHash, filename);
+            return blob;
+        }
+
+        ObjectId gridFsId;
+        try (InputStream inputStream = content.getInputStream()) {
+            gridFsId = gridFsTemplate.store(inputStream, filename, contentType,
+                    new Document("contentHash", contentHash));
+        }
+
+        Update update = new Update()
+                .inc("refCount", 1)
+                .setOnInsert("gridFsId", gridFsId.toHexString())
+                .setOnInsert("size", size)
+                .setOnInsert("createdDate", new Date());
+        blob = mongoTemplate.findAndModify(byHash, update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), FileBlob.class);
+
+        if (!gridFsId.toHexString().equals(blob.getGridFsId())) {
+            // A concurrent upload of the same content created the blob first
+            gridFsTemplate.delete(gridFsQuery(gridFsId.toHexString()));
+        }
+        return blob;
+    }
+
+    /**
+     * Drops one reference to a blob; the content itself is removed later by the sweep.
+     * Returns false if the file does not point at a shared blob.
+     */
+    private boolean releaseBlob(String contentHash, String gridFsId) {
+        if (contentHash == null) {
+            return false;
+        }
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(contentHash).and("gridFsId").is(gridFsId)),
+                new Update().inc("refCount", -1), FileBlob.class);
+        return result.getMatchedCount() > 0;
+    }
+
+    private Query gridFsQuery(String gridFsId) {
+        return Query.query(Criteria.where("_id").is(new ObjectId(gridFsId)));
+    }
+
+    private static String hash(InputStreamSource content) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream inputStream = new DigestInputStream(content.getInputStream(), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-        return false;
     }
 }
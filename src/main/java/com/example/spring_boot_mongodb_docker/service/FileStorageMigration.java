@@ -0,0 +1,60 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.FileDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * One-off migration of files whose content is still stored inline in the "files" collection.
+ * Enable with app.files.migrate-inline-data=true; documents are moved one at a time, so the
+ * migration never holds more than a single (at most 16MB) file in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "app.files.migrate-inline-data", havingValue = "true")
+public class FileStorageMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageMigration.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final FileService fileService;
+
+    @Autowired
+    public FileStorageMigration(MongoTemplate mongoTemplate, FileService fileService) {
+        this.mongoTemplate = mongoTemplate;
+        this.fileService = fileService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Query query = Query.query(Criteria.where("data").exists(true).and("gridFsId").exists(false))
+                .cursorBatchSize(1);
+
+        int migrated = 0;
+        int failed = 0;
+        try (Stream<FileDocument> files = mongoTemplate.stream(query, FileDocument.class)) {
+            Iterator<FileDocument> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                FileDocument fileDocument = iterator.next();
+                try {
+                    fileService.migrateToGridFs(fileDocument);
+                    migrated++;
+                } catch (Exception e) {
+                    logger.error("Failed to migrate file {} to GridFS", fileDocument.getId(), e);
+                    failed++;
+                }
+            }
+        }
+        logger.info("Inline file migration finished: {} migrated, {} failed", migrated, failed);
+    }
+}
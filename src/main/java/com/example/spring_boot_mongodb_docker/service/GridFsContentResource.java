@@ -0,0 +1,54 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.mongodb.client.gridfs.GridFSBucket;
+import org.bson.types.ObjectId;
+import org.springframework.core.io.AbstractResource;
+
+import java.io.InputStream;
+
+/**
+ * GridFS file content that opens a fresh download stream on every read.
+ *
+ * Spring MVC answers Range requests by opening the resource once per requested range and
+ * skipping to its start; GridFS download streams skip by chunk index, so only the chunks
+ * covering the requested bytes are fetched.
+ */
+class GridFsContentResource extends AbstractResource {
+
+    private final GridFSBucket gridFsBucket;
+    private final ObjectId gridFsId;
+    private final String filename;
+    private final long length;
+
+    GridFsContentResource(GridFSBucket gridFsBucket, ObjectId gridFsId, String filename, long length) {
+        this.gridFsBucket = gridFsBucket;
+        this.gridFsId = gridFsId;
+        this.filename = filename;
+        this.length = length;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return gridFsBucket.openDownloadStream(gridFsId);
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getDescription() {
+        return "GridFS file [" + gridFsId.toHexString() + "]";
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.config.MetricsConfig;
+import com.example.spring_boot_mongodb_docker.model.BulkIngestResult;
+import com.example.spring_boot_mongodb_docker.model.Item;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports items from a JSON array or an NDJSON stream without buffering the whole payload.
+ * Documents are parsed one at a time and written in unordered bulk batches: items without
+ * an id are inserted, items with an id overwrite the fields of (or create) the stored document.
+ * The version is never taken from the payload: imports bump it like any other update, so
+ * clients holding an older version still get a conflict.
+ */
+@Service
+public class ItemBulkIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemBulkIngestService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectReader itemReader;
+    private final ItemCacheInvalidator itemCacheInvalidator;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final MetricsConfig metricsConfig;
+
+    @Value("${app.items.bulk.batch-size:1000}")
+    private int defaultBatchSize;
+
+    @Value("${app.items.bulk.max-batch-size:10000}")
+    private int maxBatchSize;
+
+    @Autowired
+    public ItemBulkIngestService(MongoTemplate mongoTemplate,
+                                 ObjectMapper objectMapper,
+                                 ItemCacheInvalidator itemCacheInvalidator,
+                                 ItemSuggestIndex itemSuggestIndex,
+                                 MetricsConfig metricsConfig) {
+        this.mongoTemplate = mongoTemplate;
+        this.itemReader = objectMapper.readerFor(Item.class);
+        this.itemCacheInvalidator = itemCacheInvalidator;
+        this.itemSuggestIndex = itemSuggestIndex;
+        this.metricsConfig = metricsConfig;
+    }
+
+    public BulkIngestResult ingest(InputStream inputStream, Integer requestedBatchSize) throws IOException {
+        int batchSize = requestedBatchSize != null
+                ? Math.max(1, Math.min(requestedBatchSize, maxBatchSize))
+                : defaultBatchSize;
+
+        BulkIngestResult result = new BulkIngestResult();
+        List<Item> batch = new ArrayList<>(batchSize);
+        long received = 0;
+        int batchesStarted = 0;
+
+        try {
+            // readValues accepts both a root-level array and whitespace/newline separated documents
+            try (MappingIterator<Item> items = itemReader.readValues(inputStream)) {
+                while (true) {
+                    Item item;
+                    try {
+                        if (!items.hasNextValue()) {
+                            break;
+                        }
+                        item = items.nextValue();
+                    } catch (JsonProcessingException e) {
+                        // The parser cannot resynchronise after malformed input, so stop here
+                        result.setParseError("Malformed document after " + received + " documents: " + e.getOriginalMessage());
+                        break;
+                    }
+
+                    batch.add(item);
+                    received++;
+                    if (batch.size() == batchSize) {
+                        batchesStarted++;
+                        writeBatch(batch, received - batch.size(), result);
+                        batch.clear();
+                    }
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                batchesStarted++;
+                writeBatch(batch, received - batch.size(), result);
+            }
+        } finally {
+            // Also runs when the import is aborted (client gone, database error), since the
+            // batches written until then are already visible
+            result.setReceived(received);
+            // A batch that threw may have been partly written without being counted
+            invalidateCaches(result, batchesStarted > result.getBatches().size());
+        }
+
+        logger.info("Bulk ingest finished: received={}, inserted={}, upserted={}, replaced={}, failed={}",
+                received, result.getInserted(), result.getUpserted(), result.getReplaced(), result.getFailed());
+        return result;
+    }
+
+    private void invalidateCaches(BulkIngestResult result, boolean unknownWrites) {
+        long written = result.getInserted() + result.getUpserted() + result.getReplaced();
+        // One invalidation for the whole import instead of one per document
+        if (result.getReplaced() > 0 || unknownWrites) {
+            itemCacheInvalidator.invalidateAll();
+        } else if (written > 0) {
+            itemCacheInvalidator.onItemCreated(null);
+        }
+        // Inserted items only get their ids in MongoDB, so reload the suggest index instead
+        if (written > 0 || unknownWrites) {
+            itemSuggestIndex.rebuildEverywhere();
+        }
+    }
+
+    private void writeBatch(List<Item> batch, long firstDocument, BulkIngestResult result) {
+        BulkIngestResult.BatchReport report =
+                new BulkIngestResult.BatchReport(result.getBatches().size(), firstDocument, batch.size());
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Item.class);
+        for (Item item : batch) {
+            if (item.getId() == null) {
+                item.setVersion(0L);
+                operations.insert(item);
+            } else {
+                operations.upsert(Query.query(Criteria.where("_id").is(item.getId())), new Update()
+                        .set("name", item.getName())
+                        .set("nameLower", Item.normalize(item.getName()))
+                        .set("description", item.getDescription())
+                        .set("price", item.getPrice())
+                        .set("quantity", item.getQuantity())
+                        .inc("version", 1));
+            }
+        }
+
+        long startTime = System.nanoTime();
+        BulkWriteResult writeResult;
+        try {
+            writeResult = operations.execute();
+        } catch (BulkOperationException e) {
+            // Unordered: the rest of the batch was still written
+            writeResult = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                report.getErrors().add("Document " + (firstDocument + error.getIndex()) + ": " + error.getMessage());
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        report.setInserted(writeResult.getInsertedCount());
+        report.setUpserted(writeResult.getUpserts().size());
+        report.setReplaced(writeResult.getMatchedCount());
+        report.setDurationMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.addBatch(report);
+
+        long written = report.getInserted() + report.getUpserted() + report.getReplaced();
+        metricsConfig.getBulkIngestBatchTimer().record(elapsedNanos, TimeUnit.NANOSECONDS);
+        metricsConfig.getBulkIngestDocumentCounter().increment(written);
+        if (elapsedNanos > 0) {
+            metricsConfig.getBulkIngestThroughput().record(written * 1_000_000_000.0 / elapsedNanos);
+        }
+    }
+}
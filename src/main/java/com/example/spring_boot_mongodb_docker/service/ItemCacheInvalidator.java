@@ -0,0 +1,243 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.Item;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Targeted invalidation for the item caches.
+ *
+ * Single items live in the "items" cache keyed by id and are only touched for that id.
+ * Pages live in "itemPages" under keys that embed a global generation and a generation
+ * per sort field. Creates and deletes shift every page, so they bump the global generation;
+ * an update only bumps the generations of the fields it changed (pages sorted by those
+ * fields may have reordered) and evicts the other pages that contained the item, which
+ * are tracked as tags in Redis. Old keys are never deleted explicitly and simply expire.
+ *
+ * Redis holds the generations. Nodes keep them for generation-ttl only and always take the
+ * value Redis has, so a lost pub/sub message delays an invalidation by at most that long and
+ * counters that restart after a Redis flush are picked up. Keys also carry the epoch at which
+ * the counters were created, so restarted counters do not map to pages cached before.
+ *
+ * An update that lands between reading a page and tagging it finds no tag to evict. Every
+ * update therefore also counts itself in Redis before evicting, and a page is only kept in
+ * the cache if no update was counted while it was being read and tagged.
+ */
+@Service("itemCacheInvalidator")
+public class ItemCacheInvalidator implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemCacheInvalidator.class);
+
+    public static final String ITEMS_CACHE = "items";
+    public static final String PAGES_CACHE = "itemPages";
+
+    private static final String ALL_FIELDS = "*";
+    private static final String EPOCH_FIELD = "epoch";
+    private static final String GENERATIONS_KEY = "itemPages:generations";
+    private static final String TAG_KEY_PREFIX = "itemPages:tags:";
+    private static final String UPDATES_KEY = "itemPages:updates";
+
+    // Fields the item list can be sorted by; every one of them has its own generation
+    public static final Set<String> SORT_FIELDS = Set.of("id", "name", "description", "price", "quantity");
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final String generationChannel;
+    private final Duration tagTtl;
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, Long> generations;
+
+    @Autowired
+    public ItemCacheInvalidator(CacheManager cacheManager,
+                                StringRedisTemplate redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                @Value("${app.cache.item-pages.generation-channel:itemPages:generation}") String generationChannel,
+                                @Value("${app.cache.item-pages.tag-ttl:10m}") Duration tagTtl,
+                                @Value("${app.cache.item-pages.generation-ttl:5s}") Duration generationTtl) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.generationChannel = generationChannel;
+        this.tagTtl = tagTtl;
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(SORT_FIELDS.size() + 2)
+                .expireAfterWrite(generationTtl)
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(generationChannel));
+    }
+
+    public String pageKey(int page, int size, String sortBy, Sort.Direction direction) {
+        if (!SORT_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("Cannot sort items by " + sortBy);
+        }
+        return epoch() + "." + generation(ALL_FIELDS) + "." + generation(sortBy) + "_"
+                + page + "_" + size + "_" + sortBy + "_" + direction.name();
+    }
+
+    public <T> T getPage(String pageKey, Class<T> type) {
+        Cache pagesCache = cacheManager.getCache(PAGES_CACHE);
+        return pagesCache != null ? pagesCache.get(pageKey, type) : null;
+    }
+
+    /**
+     * Number of updates so far; read it before loading a page and pass it to cachePage.
+     */
+    public long updateCount() {
+        String stored = redisTemplate.opsForValue().get(UPDATES_KEY);
+        return stored != null ? Long.parseLong(stored) : 0L;
+    }
+
+    /**
+     * Tags the page with its items and caches it, unless an item may have been updated since
+     * the page was read.
+     */
+    public void cachePage(String pageKey, List<Item> items, Object page, long updatesBefore) {
+        Cache pagesCache = cacheManager.getCache(PAGES_CACHE);
+        if (pagesCache == null) {
+            return;
+        }
+        // Tagged before it is cached, so any update counted after the check below evicts it
+        tagPage(pageKey, items);
+        pagesCache.put(pageKey, page);
+        if (updateCount() != updatesBefore) {
+            pagesCache.evict(pageKey);
+        }
+    }
+
+    void tagPage(String pageKey, List<Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        long ttlSeconds = tagTtl.getSeconds();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (Item item : items) {
+                    String tagKey = TAG_KEY_PREFIX + item.getId();
+                    stringConnection.sAdd(tagKey, pageKey);
+                    stringConnection.expire(tagKey, ttlSeconds);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // Without tags the page can only be dropped by a generation bump, so force one
+            logger.warn("Failed to tag cached item page {}", pageKey, e);
+            bump(ALL_FIELDS);
+        }
+    }
+
+    public void onItemCreated(Item item) {
+        bump(ALL_FIELDS);
+    }
+
+    public void onItemDeleted(String id) {
+        evictItem(id);
+        bump(ALL_FIELDS);
+    }
+
+    public void onItemUpdated(Item before, Item after) {
+        List<String> changedFields = new ArrayList<>();
+        if (!Objects.equals(before.getName(), after.getName())) {
+            changedFields.add("name");
+        }
+        if (!Objects.equals(before.getDescription(), after.getDescription())) {
+            changedFields.add("description");
+        }
+        if (Double.compare(before.getPrice(), after.getPrice()) != 0) {
+            changedFields.add("price");
+        }
+        if (before.getQuantity() != after.getQuantity()) {
+            changedFields.add("quantity");
+        }
+
+        changedFields.forEach(this::bump);
+        // Counted before evicting, see cachePage
+        redisTemplate.opsForValue().increment(UPDATES_KEY);
+        evictTaggedPages(after.getId());
+    }
+
+    /**
+     * Invalidates everything after a write whose individual changes are not tracked.
+     */
+    public void invalidateAll() {
+        Cache itemsCache = cacheManager.getCache(ITEMS_CACHE);
+        if (itemsCache != null) {
+            itemsCache.clear();
+        }
+        bump(ALL_FIELDS);
+    }
+
+    private void evictItem(String id) {
+        Cache itemsCache = cacheManager.getCache(ITEMS_CACHE);
+        if (itemsCache != null) {
+            itemsCache.evict(id);
+        }
+    }
+
+    private void evictTaggedPages(String id) {
+        Cache pagesCache = cacheManager.getCache(PAGES_CACHE);
+        String tagKey = TAG_KEY_PREFIX + id;
+        Set<String> pageKeys = redisTemplate.opsForSet().members(tagKey);
+        if (pagesCache != null && pageKeys != null) {
+            pageKeys.forEach(pagesCache::evict);
+        }
+        redisTemplate.delete(tagKey);
+    }
+
+    private long generation(String field) {
+        return generations.get(field, f -> parse(redisTemplate.opsForHash().get(GENERATIONS_KEY, f)));
+    }
+
+    private long epoch() {
+        return generations.get(EPOCH_FIELD, f -> {
+            HashOperations<String, Object, Object> hash = redisTemplate.opsForHash();
+            // Set once per lifetime of the hash; a flush drops it along with the counters
+            hash.putIfAbsent(GENERATIONS_KEY, f, String.valueOf(System.currentTimeMillis()));
+            return parse(hash.get(GENERATIONS_KEY, f));
+        });
+    }
+
+    private static long parse(Object stored) {
+        return stored != null ? Long.parseLong(stored.toString()) : 0L;
+    }
+
+    private void bump(String field) {
+        Long next = redisTemplate.opsForHash().increment(GENERATIONS_KEY, field, 1);
+        generations.put(field, next);
+        redisTemplate.convertAndSend(generationChannel, field + "=" + next);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf('=');
+        if (separator <= 0) {
+            logger.warn("Ignoring malformed item page generation message: {}", body);
+            return;
+        }
+        // Messages from different nodes may arrive out of order, so the value is read again
+        // from Redis rather than taken from the message
+        generations.invalidate(body.substring(0, separator));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.Item;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams the items collection as newline-delimited JSON straight from a MongoDB cursor.
+ * Only one cursor batch is held in memory at a time, and since writes to the servlet stream
+ * block when the client is slow, the cursor is never read ahead of what the client consumes.
+ */
+@Service
+public class ItemExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemExportService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectWriter itemWriter;
+
+    @Value("${app.items.export.cursor-batch-size:1000}")
+    private int cursorBatchSize;
+
+    @Value("${app.items.export.flush-every:500}")
+    private int flushEvery;
+
+    @Autowired
+    public ItemExportService(MongoTemplate mongoTemplate, ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        // Flushing is done in batches below rather than after every document
+        this.itemWriter = objectMapper.writerFor(Item.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public long exportNdjson(OutputStream outputStream) throws IOException {
+        // Slow clients can leave the cursor idle for longer than the server's default timeout
+        Query query = new Query().cursorBatchSize(cursorBatchSize).noCursorTimeout();
+
+        long exported = 0;
+        long startTime = System.currentTimeMillis();
+
+        try (Stream<Item> items = mongoTemplate.stream(query, Item.class);
+             JsonGenerator generator = itemWriter.getFactory().createGenerator(outputStream)) {
+            // The caller owns the output stream (it may be wrapped in a GZIPOutputStream)
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+
+            Iterator<Item> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                itemWriter.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+
+                if (++exported % flushEvery == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+
+        logger.info("Exported {} items in {}ms", exported, System.currentTimeMillis() - startTime);
+        return exported;
+    }
+}
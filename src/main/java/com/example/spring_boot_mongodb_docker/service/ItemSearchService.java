@@ -0,0 +1,154 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.Item;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Item search backed by indexes instead of unanchored regular expressions.
+ *
+ * TEXT matches words in name and description through the text index and orders the results by
+ * relevance. PREFIX is meant for autocomplete: it matches the start of the name, ignoring case,
+ * with a range scan on the normalised nameLower field.
+ */
+@Service
+public class ItemSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemSearchService.class);
+
+    public enum Mode {
+        TEXT, PREFIX;
+
+        public static Mode parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown search mode: " + value);
+            }
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.items.search.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Autowired
+    public ItemSearchService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public Page<Item> search(String keyword, Mode mode, Pageable pageable) {
+        return mode == Mode.PREFIX ? searchByPrefix(keyword, pageable) : searchText(keyword, pageable);
+    }
+
+    /**
+     * Items matching any of the words of the keyword, most relevant first.
+     */
+    public Page<Item> searchText(String keyword, Pageable pageable) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(keyword))
+                .sortByScore()
+                .with(pageable);
+
+        List<Item> content = mongoTemplate.find(query, Item.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Item.class));
+    }
+
+    /**
+     * Items whose name starts with the prefix, ignoring case, ordered by name.
+     */
+    public Page<Item> searchByPrefix(String prefix, Pageable pageable) {
+        String normalized = prefix != null ? Item.normalize(prefix) : "";
+        // [prefix, upper bound) holds every string starting with prefix and is a tight index bound,
+        // unlike a case-insensitive regex which has to scan the whole index
+        Criteria nameLower = Criteria.where("nameLower").gte(normalized);
+        String upperBound = prefixUpperBound(normalized);
+        if (upperBound != null) {
+            nameLower.lt(upperBound);
+        }
+        Query query = Query.query(nameLower)
+                .with(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                        Sort.by("nameLower").and(Sort.by("_id"))));
+
+        List<Item> content = mongoTemplate.find(query, Item.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Item.class));
+    }
+
+    /**
+     * The smallest string greater than every string starting with the prefix, or null if there is
+     * none (the prefix is empty or only made of U+10FFFF). MongoDB compares strings by their UTF-8
+     * bytes, i.e. by code point, so appending U+FFFF is not enough: names continuing with a
+     * supplementary character sort after it. Instead the last code point is incremented.
+     */
+    static String prefixUpperBound(String prefix) {
+        int end = prefix.length();
+        while (end > 0) {
+            int last = prefix.codePointBefore(end);
+            end -= Character.charCount(last);
+            if (last < Character.MAX_CODE_POINT) {
+                int next = last + 1;
+                if (next >= Character.MIN_SURROGATE && next <= Character.MAX_SURROGATE) {
+                    // Surrogates are not characters of their own, so no string contains them
+                    next = Character.MAX_SURROGATE + 1;
+                }
+                return new StringBuilder(end + 2).append(prefix, 0, end).appendCodePoint(next).toString();
+            }
+        }
+        return null;
+    }
+
+    // Items stored before nameLower existed are not found by prefix search until they are
+    // backfilled. Runs in the background like index creation; new writes set the field themselves.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInBackground() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(this::backfillNameLower, "item-search-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Sets nameLower on items that don't have it yet. Returns the number of updated items.
+     */
+    public long backfillNameLower() {
+        try {
+            // $toLower only folds ASCII, close enough for legacy data; the next save of an item
+            // replaces it with the fully normalised form
+            long updated = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("nameLower").exists(false).and("name").type(2)),
+                    AggregationUpdate.update().set("nameLower").toValue(StringOperators.valueOf("name").toLower()),
+                    Item.class).getModifiedCount();
+            if (updated > 0) {
+                logger.info("Backfilled nameLower on {} items", updated);
+            }
+            return updated;
+        } catch (Exception e) {
+            logger.error("Failed to backfill nameLower on items", e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,538 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.Item;
+import com.example.spring_boot_mongodb_docker.model.ItemSuggestion;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of item names for type-ahead suggestions.
+ *
+ * Names are split into normalised words; the sorted word dictionary maps each word to the
+ * int ids of the items containing it, so every query word is looked up as a range of the
+ * dictionary, like a walk down a trie. Items get a new int id whenever they change; old ids
+ * are only marked dead, and the postings are compacted once dead ids outnumber live ones.
+ *
+ * The index is loaded from MongoDB at startup and kept current by the item write paths.
+ * Changes made on this node are published to the other nodes, which read the item again from
+ * MongoDB; since pub/sub may lose messages, every node also reloads the index every
+ * rebuild-interval. A reload fills a new index and swaps it in when complete, so suggestions
+ * are served from the previous index meanwhile. It holds at most app.items.suggest.max-items
+ * items; past that it drops its content and suggest() returns null, as it does before the first
+ * load, so callers fall back to the database.
+ */
+@Service
+public class ItemSuggestIndex implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemSuggestIndex.class);
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_DEAD_BEFORE_COMPACTION = 1024;
+
+    private static final String OP_INDEX = "index";
+    private static final String OP_REMOVE = "remove";
+    private static final String OP_REBUILD = "rebuild";
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final boolean enabled;
+    private final int maxItems;
+    // Identifies this node's messages, which it has already applied
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // The index serving suggestions; guarded by lock
+    private Segment current;
+    // The index a running rebuild is filling, null otherwise. The field is guarded by lock,
+    // the segment's content by its own monitor, so loading it never blocks suggest()
+    private Segment loading;
+
+    private volatile boolean ready;
+
+    private final ExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    @Autowired
+    public ItemSuggestIndex(MongoTemplate mongoTemplate,
+                            StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${app.items.suggest.channel:items:suggest}") String channel,
+                            @Value("${app.items.suggest.enabled:false}") boolean enabled,
+                            @Value("${app.items.suggest.max-items:1000000}") int maxItems) {
+        this.mongoTemplate = mongoTemplate;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.enabled = enabled;
+        this.maxItems = maxItems;
+        this.current = new Segment(maxItems);
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-suggest-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuildInBackground();
+    }
+
+    // Catches up with changes whose messages were lost
+    @Scheduled(initialDelayString = "${app.items.suggest.rebuild-interval:1h}",
+            fixedDelayString = "${app.items.suggest.rebuild-interval:1h}")
+    public void rebuildPeriodically() {
+        rebuildInBackground();
+    }
+
+    /**
+     * Reloads the index on every node, after writes whose individual changes are not tracked.
+     */
+    public void rebuildEverywhere() {
+        if (enabled) {
+            rebuildInBackground();
+            publish(OP_REBUILD, "");
+        }
+    }
+
+    /**
+     * Reloads the whole index from MongoDB on a background thread. Requests made while a
+     * rebuild is already queued are coalesced into it.
+     */
+    public void rebuildInBackground() {
+        if (enabled && !rebuildQueued.getAndSet(true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildQueued.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    /**
+     * Reloads the whole index from MongoDB into a new index, which replaces the current one
+     * once the collection has been streamed; until then suggestions come from the current one.
+     * Writes made through index() and remove() meanwhile are applied to both, and take
+     * precedence over what the stream returns.
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+
+        Segment next = new Segment(maxItems);
+        lock.writeLock().lock();
+        try {
+            loading = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Query query = new Query().cursorBatchSize(1000);
+        query.fields().include("name");
+        try (Stream<Item> items = mongoTemplate.stream(query, Item.class)) {
+            items.forEach(item -> {
+                synchronized (next) {
+                    next.load(item.getId(), item.getName());
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Failed to load the item suggest index, keeping the previous one", e);
+            lock.writeLock().lock();
+            try {
+                if (loading == next) {
+                    loading = null;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            synchronized (next) {
+                next.finishLoading();
+                if (loading == next) {
+                    loading = null;
+                }
+                current = next;
+                ready = !next.overCapacity;
+            }
+            logger.info("Item suggest index loaded: {} items, {} terms in {}ms",
+                    next.docsById.size(), next.terms.size(), System.currentTimeMillis() - startTime);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the item, or replaces its previous name, here and on the other nodes.
+     */
+    public void index(Item item) {
+        if (!enabled || item == null || item.getId() == null) {
+            return;
+        }
+        indexLocally(item);
+        publish(OP_INDEX, item.getId());
+    }
+
+    public void remove(String id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        removeLocally(id);
+        publish(OP_REMOVE, id);
+    }
+
+    private void indexLocally(Item item) {
+        lock.writeLock().lock();
+        try {
+            current.put(item.getId(), item.getName());
+            if (current.overCapacity) {
+                ready = false;
+            }
+            if (loading != null) {
+                synchronized (loading) {
+                    loading.put(item.getId(), item.getName());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocally(String id) {
+        lock.writeLock().lock();
+        try {
+            current.remove(id);
+            if (loading != null) {
+                synchronized (loading) {
+                    loading.removeWhileLoading(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Items with a word starting with each word of the query, or null if the index is not
+     * available (disabled, loading or over capacity) and the caller should query MongoDB.
+     */
+    public List<ItemSuggestion> suggest(String query, int limit) {
+        if (!ready) {
+            return null;
+        }
+        String[] queryWords = words(Item.normalize(query));
+        if (queryWords.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        // The longest word has the narrowest dictionary range; the others are checked per item
+        String driver = Arrays.stream(queryWords).max((a, b) -> Integer.compare(a.length(), b.length())).get();
+
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return null;
+            }
+            return current.suggest(driver, queryWords, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.docsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private void publish(String op, String id) {
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + " " + op + " " + id);
+        } catch (Exception e) {
+            // The other nodes pick the change up with their next periodic rebuild
+            logger.warn("Failed to publish item suggest change {} {}", op, id, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(" ", 3);
+        if (parts.length < 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        String op = parts[1];
+        String id = parts[2];
+        if (OP_REBUILD.equals(op)) {
+            rebuildInBackground();
+        } else if (OP_INDEX.equals(op) || OP_REMOVE.equals(op)) {
+            // Applied in order on the rebuild thread, so the listener never waits for MongoDB
+            rebuildExecutor.execute(() -> {
+                if (OP_INDEX.equals(op)) {
+                    refresh(id);
+                } else {
+                    removeLocally(id);
+                }
+            });
+        } else {
+            logger.warn("Ignoring unknown item suggest change {}", op);
+        }
+    }
+
+    // Reads the current name, since the message may be older than the item
+    void refresh(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("name");
+        Item item = mongoTemplate.findOne(query, Item.class);
+        if (item != null) {
+            indexLocally(item);
+        } else {
+            removeLocally(id);
+        }
+    }
+
+    private static boolean matchesAll(String name, String[] queryWords) {
+        if (queryWords.length == 1) {
+            return true;
+        }
+        String[] nameWords = words(Item.normalize(name));
+        for (String queryWord : queryWords) {
+            boolean matched = false;
+            for (String nameWord : nameWords) {
+                if (nameWord.startsWith(queryWord)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] docs, int count, int doc) {
+        for (int i = 0; i < count; i++) {
+            if (docs[i] == doc) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] words(String normalized) {
+        if (normalized == null) {
+            return new String[0];
+        }
+        return Arrays.stream(WORD_SEPARATOR.split(normalized))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * One complete index: the word dictionary, its postings and the items' ids and names.
+     */
+    private static final class Segment {
+
+        private final int maxItems;
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        private final Map<String, Integer> docsById = new HashMap<>();
+        private final BitSet live = new BitSet();
+        private String[] ids = new String[1024];
+        private String[] names = new String[1024];
+        private int nextDoc;
+        private int deadDocs;
+        private boolean overCapacity;
+        // Ids removed while the collection is being streamed into this segment; null once loaded
+        private Set<String> removedWhileLoading = new HashSet<>();
+
+        Segment(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        // Adds an item read by the rebuild, unless it was written or removed since the rebuild started
+        void load(String id, String name) {
+            if (!overCapacity && !docsById.containsKey(id) && !removedWhileLoading.contains(id)) {
+                add(id, name);
+            }
+        }
+
+        void finishLoading() {
+            removedWhileLoading = null;
+        }
+
+        void put(String id, String name) {
+            if (!overCapacity) {
+                remove(id);
+                add(id, name);
+            }
+        }
+
+        void removeWhileLoading(String id) {
+            remove(id);
+            removedWhileLoading.add(id);
+        }
+
+        List<ItemSuggestion> suggest(String driver, String[] queryWords, int limit) {
+            List<ItemSuggestion> suggestions = new ArrayList<>(limit);
+            int[] found = new int[limit];
+            for (Postings postings : terms.subMap(driver, true, driver + Character.MAX_VALUE, false).values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = postings.docs[i];
+                    // An item containing several words with the prefix shows up in several postings
+                    if (!live.get(doc) || contains(found, suggestions.size(), doc)
+                            || !matchesAll(names[doc], queryWords)) {
+                        continue;
+                    }
+                    found[suggestions.size()] = doc;
+                    suggestions.add(new ItemSuggestion(ids[doc], names[doc]));
+                    if (suggestions.size() == limit) {
+                        return suggestions;
+                    }
+                }
+            }
+            return suggestions;
+        }
+
+        private void add(String id, String name) {
+            if (name == null) {
+                return;
+            }
+            if (docsById.size() >= maxItems) {
+                logger.warn("Item suggest index reached its cap of {} items, suggestions fall back to MongoDB", maxItems);
+                clear();
+                overCapacity = true;
+                return;
+            }
+
+            int doc = nextDoc++;
+            if (doc == ids.length) {
+                int capacity = ids.length + (ids.length >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+            }
+            ids[doc] = id;
+            names[doc] = name;
+            live.set(doc);
+            docsById.put(id, doc);
+
+            // Each word is stored once, as the dictionary key; postings only hold int ids
+            for (String word : new LinkedHashSet<>(Arrays.asList(words(Item.normalize(name))))) {
+                terms.computeIfAbsent(word, w -> new Postings()).add(doc);
+            }
+        }
+
+        void remove(String id) {
+            Integer doc = docsById.remove(id);
+            if (doc == null) {
+                return;
+            }
+            live.clear(doc);
+            ids[doc] = null;
+            names[doc] = null;
+            deadDocs++;
+            if (deadDocs >= MIN_DEAD_BEFORE_COMPACTION && deadDocs > docsById.size()) {
+                compact();
+            }
+        }
+
+        // Re-adds the live items under new, dense ids so dead ids no longer take space in postings
+        private void compact() {
+            String[] oldIds = ids;
+            String[] oldNames = names;
+            int oldNextDoc = nextDoc;
+            BitSet oldLive = (BitSet) live.clone();
+            int liveDocs = docsById.size();
+
+            terms.clear();
+            docsById.clear();
+            live.clear();
+            ids = new String[Math.max(1024, liveDocs + (liveDocs >> 1))];
+            names = new String[ids.length];
+            nextDoc = 0;
+            deadDocs = 0;
+
+            for (int doc = oldLive.nextSetBit(0); doc >= 0 && doc < oldNextDoc; doc = oldLive.nextSetBit(doc + 1)) {
+                add(oldIds[doc], oldNames[doc]);
+            }
+        }
+
+        private void clear() {
+            terms.clear();
+            docsById.clear();
+            live.clear();
+            ids = new String[1024];
+            names = new String[1024];
+            nextDoc = 0;
+            deadDocs = 0;
+        }
+    }
+
+    /**
+     * Ascending int ids of the items containing a word, in a growable array.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[2];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+            }
+            docs[size++] = doc;
+        }
+    }
+}
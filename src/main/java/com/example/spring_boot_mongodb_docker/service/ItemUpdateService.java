@@ -0,0 +1,151 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.config.MetricsConfig;
+import com.example.spring_boot_mongodb_docker.exception.UpdateConflictException;
+import com.example.spring_boot_mongodb_docker.model.Item;
+import com.example.spring_boot_mongodb_docker.model.ItemPatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Item updates as a single atomic findAndModify instead of findById followed by save.
+ *
+ * Conditions (expected version, enough quantity for a decrement) are part of the query, so
+ * concurrent updates cannot interleave between the check and the write. Only when nothing
+ * matched is the item read again, to tell "not found" from a conflict.
+ */
+@Service
+public class ItemUpdateService {
+
+    private final MongoTemplate mongoTemplate;
+    private final MetricsConfig metricsConfig;
+    private final ItemCacheInvalidator itemCacheInvalidator;
+    private final ItemSuggestIndex itemSuggestIndex;
+
+    @Autowired
+    public ItemUpdateService(MongoTemplate mongoTemplate,
+                             MetricsConfig metricsConfig,
+                             ItemCacheInvalidator itemCacheInvalidator,
+                             ItemSuggestIndex itemSuggestIndex) {
+        this.mongoTemplate = mongoTemplate;
+        this.metricsConfig = metricsConfig;
+        this.itemCacheInvalidator = itemCacheInvalidator;
+        this.itemSuggestIndex = itemSuggestIndex;
+    }
+
+    /**
+     * Replaces all fields of the item (PUT). Checks the version if details carries one.
+     */
+    public Optional<Item> replace(String id, Item details) {
+        Update update = new Update()
+                .set("name", details.getName())
+                .set("nameLower", Item.normalize(details.getName()))
+                .set("description", details.getDescription())
+                .set("price", details.getPrice())
+                .set("quantity", details.getQuantity());
+
+        return apply("updateItem", id, details.getVersion(), null, update, item -> {
+            item.setName(details.getName());
+            item.setDescription(details.getDescription());
+            item.setPrice(details.getPrice());
+            item.setQuantity(details.getQuantity());
+        });
+    }
+
+    /**
+     * Changes only the fields present in the patch (PATCH).
+     */
+    public Optional<Item> patch(String id, ItemPatch patch) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        if (patch.getQuantity() != null && patch.getQuantityDelta() != null) {
+            throw new IllegalArgumentException("quantity and quantityDelta cannot be combined");
+        }
+
+        Update update = new Update();
+        if (patch.getName() != null) {
+            update.set("name", patch.getName()).set("nameLower", Item.normalize(patch.getName()));
+        }
+        if (patch.getDescription() != null) {
+            update.set("description", patch.getDescription());
+        }
+        if (patch.getPrice() != null) {
+            update.set("price", patch.getPrice());
+        }
+        if (patch.getQuantity() != null) {
+            update.set("quantity", patch.getQuantity());
+        }
+        if (patch.getQuantityDelta() != null) {
+            update.inc("quantity", patch.getQuantityDelta());
+        }
+
+        return apply("patchItem", id, patch.getVersion(), patch.getQuantityDelta(), update, item -> {
+            if (patch.getName() != null) {
+                item.setName(patch.getName());
+            }
+            if (patch.getDescription() != null) {
+                item.setDescription(patch.getDescription());
+            }
+            if (patch.getPrice() != null) {
+                item.setPrice(patch.getPrice());
+            }
+            if (patch.getQuantity() != null) {
+                item.setQuantity(patch.getQuantity());
+            }
+            if (patch.getQuantityDelta() != null) {
+                item.setQuantity(item.getQuantity() + patch.getQuantityDelta());
+            }
+        });
+    }
+
+    // Applies the update and returns the new state, derived from the previous state returned by
+    // findAndModify; the cache invalidation needs both to know which sort orders changed.
+    private Optional<Item> apply(String operation, String id, Long expectedVersion, Integer quantityDelta,
+                                 Update update, Consumer<Item> changes) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        if (quantityDelta != null && quantityDelta < 0) {
+            criteria.and("quantity").gte(-quantityDelta);
+        }
+        update.inc("version", 1);
+
+        Item before = metricsConfig.recordDatabaseOperationTime("items", operation, () ->
+                mongoTemplate.findAndModify(Query.query(criteria), update,
+                        FindAndModifyOptions.options().returnNew(false), Item.class)
+        );
+
+        if (before == null) {
+            Item current = mongoTemplate.findById(id, Item.class);
+            if (current == null) {
+                return Optional.empty();
+            }
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                throw new UpdateConflictException("Item " + id + " was modified concurrently, current version is "
+                        + current.getVersion());
+            }
+            throw new UpdateConflictException("Insufficient quantity for item " + id + ": "
+                    + current.getQuantity() + " available");
+        }
+
+        Item after = new Item(before.getName(), before.getDescription(), before.getPrice(), before.getQuantity());
+        after.setId(before.getId());
+        changes.accept(after);
+        // $inc on a missing field starts from 0
+        after.setVersion(before.getVersion() != null ? before.getVersion() + 1 : 1L);
+
+        itemCacheInvalidator.onItemUpdated(before, after);
+        itemSuggestIndex.index(after);
+        return Optional.of(after);
+    }
+}
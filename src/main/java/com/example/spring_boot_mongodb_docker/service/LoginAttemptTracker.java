@@ -0,0 +1,100 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.exception.ThrottledException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Failed logins, for exponential backoff.
+ *
+ * Failures are counted per username and client address. The first free-attempts failures
+ * cost nothing; each failure after that blocks that username from that client for base-delay,
+ * doubling up to max-delay. Blocked logins are answered with 429 before any password is hashed.
+ * Blocking the username itself would let anyone lock a user out, so failures from all clients
+ * only lower the priority of the username's logins. Counts are forgotten after a successful
+ * login or once there has been no failure for the window.
+ */
+@Service
+public class LoginAttemptTracker {
+
+    private final int freeAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+
+    // Failures from one client, which can block
+    private final Cache<Source, Attempts> attempts;
+    // Failures from any client, which only deprioritise
+    private final Cache<String, Integer> usernameFailures;
+
+    @Autowired
+    public LoginAttemptTracker(@Value("${app.security.login.free-attempts:5}") int freeAttempts,
+                               @Value("${app.security.login.base-delay:1s}") Duration baseDelay,
+                               @Value("${app.security.login.max-delay:15m}") Duration maxDelay,
+                               @Value("${app.security.login.window:15m}") Duration window,
+                               @Value("${app.security.login.max-tracked-usernames:100000}") long maxTracked) {
+        this.freeAttempts = freeAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                // A block must not be forgotten before it ends
+                .expireAfterWrite(window.compareTo(maxDelay) >= 0 ? window : maxDelay)
+                .build();
+        this.usernameFailures = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Throws if the username is currently blocked for this client.
+     */
+    public void checkAllowed(String username, String client) {
+        Attempts current = attempts.getIfPresent(new Source(username, client));
+        if (current == null) {
+            return;
+        }
+        long blockedFor = current.blockedUntil() - System.currentTimeMillis();
+        if (blockedFor > 0) {
+            throw new ThrottledException("Too many failed login attempts, try again later", Duration.ofMillis(blockedFor));
+        }
+    }
+
+    /**
+     * Whether logins of this username failed recently, from any client.
+     */
+    public boolean hasRecentFailures(String username) {
+        return usernameFailures.getIfPresent(username) != null;
+    }
+
+    public void recordFailure(String username, String client) {
+        usernameFailures.asMap().merge(username, 1, Integer::sum);
+        long now = System.currentTimeMillis();
+        attempts.asMap().compute(new Source(username, client), (key, previous) -> {
+            int failures = previous != null ? previous.failures() + 1 : 1;
+            int excess = failures - freeAttempts;
+            if (excess <= 0) {
+                return new Attempts(failures, 0);
+            }
+            // base * 2^(excess - 1), capped; the shift is bounded to avoid overflow
+            long delay = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(excess - 1, 30));
+            return new Attempts(failures, now + delay);
+        });
+    }
+
+    public void recordSuccess(String username, String client) {
+        attempts.invalidate(new Source(username, client));
+        usernameFailures.invalidate(username);
+    }
+
+    private record Source(String username, String client) {
+    }
+
+    private record Attempts(int failures, long blockedUntil) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.exception.InvalidCursorException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position of the last document returned by a keyset query: the sort field and direction,
+ * the value of the sort field and the document id used as a tie-breaker.
+ * Serialised as an opaque URL-safe token.
+ */
+final class PageCursor {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final String sortBy;
+    private final String direction;
+    private final Object sortValue;
+    private final String id;
+
+    PageCursor(String sortBy, String direction, Object sortValue, String id) {
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    String getSortBy() { return sortBy; }
+    String getDirection() { return direction; }
+    Object getSortValue() { return sortValue; }
+    String getId() { return id; }
+
+    String encode() {
+        String raw = sortBy + SEPARATOR + direction + SEPARATOR + encodeValue(sortValue) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        if (parts.length != 4 || parts[2].isEmpty()) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        return new PageCursor(parts[0], parts[1], decodeValue(parts[2]), parts[3]);
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return "N";
+        } else if (value instanceof String) {
+            return "S" + value;
+        } else if (value instanceof Integer) {
+            return "I" + value;
+        } else if (value instanceof Long) {
+            return "L" + value;
+        } else if (value instanceof Double) {
+            return "D" + value;
+        } else if (value instanceof Boolean) {
+            return "B" + value;
+        } else if (value instanceof Date) {
+            return "T" + ((Date) value).getTime();
+        } else if (value instanceof ObjectId) {
+            return "O" + ((ObjectId) value).toHexString();
+        }
+        throw new InvalidCursorException("Cannot paginate by a field of type " + value.getClass().getSimpleName());
+    }
+
+    private static Object decodeValue(String encoded) {
+        String value = encoded.substring(1);
+        try {
+            switch (encoded.charAt(0)) {
+                case 'N': return null;
+                case 'S': return value;
+                case 'I': return Integer.valueOf(value);
+                case 'L': return Long.valueOf(value);
+                case 'D': return Double.valueOf(value);
+                case 'B': return Boolean.valueOf(value);
+                case 'T': return new Date(Long.parseLong(value));
+                case 'O': return new ObjectId(value);
+                default: throw new InvalidCursorException("Malformed cursor");
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
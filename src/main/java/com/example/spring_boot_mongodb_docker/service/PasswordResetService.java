@@ -0,0 +1,112 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.config.MetricsConfig;
+import com.example.spring_boot_mongodb_docker.model.PasswordResetToken;
+import com.example.spring_boot_mongodb_docker.repository.PasswordResetTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Issues and redeems password reset tokens.
+ *
+ * Tokens are 256 random bits, so an unsalted SHA-256 hash is enough to make the stored value
+ * useless to someone who reads the collection, while a token can still be found by an
+ * indexed equality match on its hash. Redeeming is a single findAndRemove, which also makes
+ * each token usable only once.
+ */
+@Service
+public class PasswordResetService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final PasswordResetTokenRepository tokenRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MetricsConfig metricsConfig;
+    private final Duration tokenTtl;
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public PasswordResetService(PasswordResetTokenRepository tokenRepository,
+                                MongoTemplate mongoTemplate,
+                                MetricsConfig metricsConfig,
+                                @Value("${app.security.password-reset.token-ttl:30m}") Duration tokenTtl) {
+        this.tokenRepository = tokenRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.metricsConfig = metricsConfig;
+        this.tokenTtl = tokenTtl;
+    }
+
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+
+    /**
+     * Replaces any pending reset of the user by a new one. Returns the token to send to the
+     * user. Only its hash is kept here; the reset email carrying it must not outlive expiresAt.
+     */
+    public IssuedToken createToken(String username) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant expiresAt = Instant.now().plus(tokenTtl);
+
+        metricsConfig.recordDatabaseOperationTime("password_reset_tokens", "createResetToken", () -> {
+            tokenRepository.deleteByUsername(username);
+            return tokenRepository.insert(new PasswordResetToken(hash(token), username, expiresAt));
+        });
+        return new IssuedToken(token, expiresAt);
+    }
+
+    /**
+     * Whether the token is known and unexpired, without consuming it. One indexed lookup, so
+     * callers can turn away made-up tokens before doing anything expensive.
+     */
+    public boolean isRedeemable(String token) {
+        if (token == null || token.isEmpty()) {
+            return false;
+        }
+        return metricsConfig.recordDatabaseOperationTime("password_reset_tokens", "checkResetToken",
+                () -> mongoTemplate.exists(redeemableQuery(token), PasswordResetToken.class));
+    }
+
+    /**
+     * Consumes the token and returns the username it was issued for, or empty if the token is
+     * unknown, already used or expired. MongoDB removes expired tokens only about once a minute,
+     * so the expiry is checked here as well.
+     */
+    public Optional<String> redeem(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        PasswordResetToken redeemed = metricsConfig.recordDatabaseOperationTime("password_reset_tokens", "redeemResetToken",
+                () -> mongoTemplate.findAndRemove(redeemableQuery(token), PasswordResetToken.class));
+        return Optional.ofNullable(redeemed).map(PasswordResetToken::getUsername);
+    }
+
+    private static Query redeemableQuery(String token) {
+        return Query.query(Criteria.where("tokenHash").is(hash(token)).and("expiryDate").gt(Instant.now()));
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java runtime is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
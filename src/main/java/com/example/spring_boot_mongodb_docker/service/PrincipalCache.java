@@ -0,0 +1,208 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.User;
+import com.example.spring_boot_mongodb_docker.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-node cache of what the JWT filter needs to know about a user without going to MongoDB.
+ *
+ * Tokens carry the user's security version ("ver" claim). Revoking a user (role change, lock,
+ * delete) bumps that version and records it as the minimum accepted version, so every token
+ * issued earlier is rejected. The minimum is kept in Redis for as long as a token can live and
+ * pushed to the other nodes over pub/sub; nodes that missed a message pick it up again once
+ * their local entry expires. Without a minimum in Redis the user's security version in MongoDB
+ * is used, which is where every revocation is recorded first.
+ *
+ * A revocation that could not be written to Redis is retried until it is. Meanwhile its stale
+ * key is removed if possible, so the other nodes read the new version from MongoDB.
+ */
+@Service
+public class PrincipalCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private static final String VERSION_KEY_PREFIX = "auth:security-version:";
+
+    private final UserDetailsService userDetailsService;
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final String revocationChannel;
+    private final Duration tokenLifetime;
+
+    // username -> lowest security version still accepted
+    private final Cache<String, Long> minimumVersions;
+    // username -> user details, for tokens that do not carry their roles
+    private final Cache<String, UserDetails> principals;
+    // Incremented by every revocation, so a user loaded while one happened is not cached
+    private final AtomicLong revocations = new AtomicLong();
+    // username -> revoked version not yet stored in Redis or not yet published
+    private final Map<String, Long> unpublished = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PrincipalCache(UserDetailsService userDetailsService,
+                          UserRepository userRepository,
+                          StringRedisTemplate redisTemplate,
+                          RedisMessageListenerContainer listenerContainer,
+                          @Value("${app.security.principal-cache.revocation-channel:auth:revocations}") String revocationChannel,
+                          @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.security.principal-cache.ttl:5m}") Duration ttl,
+                          @Value("${jwt.expiration}") long jwtExpiration) {
+        this.userDetailsService = userDetailsService;
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.revocationChannel = revocationChannel;
+        this.tokenLifetime = Duration.ofMillis(jwtExpiration);
+        this.minimumVersions = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+        this.principals = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(revocationChannel));
+    }
+
+    /**
+     * Whether a token issued at the given security version has not been revoked since.
+     */
+    public boolean isCurrent(String username, long tokenVersion) {
+        // Misses are loaded outside the cache rather than with Cache.get(key, loader): the loader
+        // would block on Redis inside a synchronized section of the map, pinning a virtual thread
+        Long minimumVersion = minimumVersions.getIfPresent(username);
+        if (minimumVersion == null) {
+            Long loaded = loadMinimumVersion(username);
+            if (loaded == null) {
+                // Unknown user, e.g. deleted. Not cached, so a new user of that name is seen right away
+                return false;
+            }
+            minimumVersion = minimumVersions.asMap().merge(username, loaded, Math::max);
+        }
+        return tokenVersion >= minimumVersion;
+    }
+
+    public UserDetails loadUser(String username) {
+        UserDetails user = principals.getIfPresent(username);
+        if (user == null) {
+            long revocationsBefore = revocations.get();
+            user = userDetailsService.loadUserByUsername(username);
+            if (revocations.get() == revocationsBefore) {
+                principals.put(username, user);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Rejects every token of the user issued before the given security version.
+     */
+    public void revoke(String username, long securityVersion) {
+        apply(username, securityVersion);
+        if (!publish(username, securityVersion)) {
+            unpublished.merge(username, securityVersion, Math::max);
+        }
+    }
+
+    /**
+     * Lowest security version a new user of this name must start at, so tokens of a deleted
+     * user of the same name stay revoked without rejecting the new user's tokens.
+     */
+    public long revokedVersion(String username) {
+        long version = unpublished.getOrDefault(username, 0L);
+        try {
+            String stored = redisTemplate.opsForValue().get(VERSION_KEY_PREFIX + username);
+            if (stored != null) {
+                version = Math.max(version, Long.parseLong(stored));
+            }
+        } catch (Exception e) {
+            logger.warn("Security version lookup in Redis failed for user {}", username, e);
+        }
+        Long local = minimumVersions.getIfPresent(username);
+        return local != null ? Math.max(version, local) : version;
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.principal-cache.revocation-retry-interval:10s}")
+    public void retryUnpublishedRevocations() {
+        unpublished.forEach((username, securityVersion) -> {
+            if (publish(username, securityVersion)) {
+                unpublished.remove(username, securityVersion);
+                logger.info("Published pending revocation for user {}", username);
+            }
+        });
+    }
+
+    private boolean publish(String username, long securityVersion) {
+        String key = VERSION_KEY_PREFIX + username;
+        try {
+            redisTemplate.opsForValue().set(key, Long.toString(securityVersion), tokenLifetime);
+        } catch (Exception e) {
+            logger.error("Failed to store revocation for user {} in Redis, will retry", username, e);
+            // An older minimum left in Redis would be trusted by the other nodes; without one
+            // they read the new version from MongoDB
+            try {
+                redisTemplate.delete(key);
+            } catch (Exception deleteFailure) {
+                logger.warn("Failed to remove stale security version of user {} from Redis", username);
+            }
+            return false;
+        }
+        try {
+            redisTemplate.convertAndSend(revocationChannel, username + "=" + securityVersion);
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to publish revocation for user {}, will retry", username, e);
+            return false;
+        }
+    }
+
+    // Null if the user does not exist
+    private Long loadMinimumVersion(String username) {
+        try {
+            String stored = redisTemplate.opsForValue().get(VERSION_KEY_PREFIX + username);
+            if (stored != null) {
+                return Long.parseLong(stored);
+            }
+        } catch (Exception e) {
+            logger.warn("Security version lookup in Redis failed for user {}, using MongoDB", username, e);
+        }
+        // No revocation in Redis (expired, never made, or not stored because Redis failed)
+        return userRepository.findByUsername(username)
+                .map(User::getSecurityVersion)
+                .orElse(null);
+    }
+
+    private void apply(String username, long securityVersion) {
+        minimumVersions.asMap().merge(username, securityVersion, Math::max);
+        revocations.incrementAndGet();
+        principals.invalidate(username);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf('=');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            apply(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed revocation message: {}", body);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.spring_boot_mongodb_docker.service;
 
 import com.example.spring_boot_mongodb_docker.config.MetricsConfig;
+import com.example.spring_boot_mongodb_docker.model.CursorSlice;
 import com.example.spring_boot_mongodb_docker.model.Role;
 import com.example.spring_boot_mongodb_docker.model.User;
 import com.example.spring_boot_mongodb_docker.repository.UserRepository;
@@ -9,6 +10,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -23,14 +31,23 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final MetricsConfig metricsConfig;
+    private final CursorPaginationService cursorPaginationService;
+    private final PrincipalCache principalCache;
+    private final MongoTemplate mongoTemplate;
 
     @Autowired
     public UserService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
-                       MetricsConfig metricsConfig) {
+                       MetricsConfig metricsConfig,
+                       CursorPaginationService cursorPaginationService,
+                       PrincipalCache principalCache,
+                       MongoTemplate mongoTemplate) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.metricsConfig = metricsConfig;
+        this.cursorPaginationService = cursorPaginationService;
+        this.principalCache = principalCache;
+        this.mongoTemplate = mongoTemplate;
     }
 
     public User save(User user) {
@@ -47,78 +64,144 @@ public class UserService {
             user.addRole(Role.ROLE_USER);
         }
 
+        // A deleted user of the same name may have tokens that are still revoked
+        if (user.getId() == null) {
+            user.setSecurityVersion(principalCache.revokedVersion(user.getUsername()));
+        }
+
         // Record database operation time
-        return metricsConfig.recordDatabaseOperationTime("saveUser", () ->
+        return metricsConfig.recordDatabaseOperationTime("users", "saveUser", () ->
                 userRepository.save(user)
         );
     }
 
     public User saveWithoutEncodingPassword(User user) {
         logger.info("Saving user without encoding password: {}", user.getUsername());
-        return metricsConfig.recordDatabaseOperationTime("saveUserWithoutEncodingPassword", () ->
+        return metricsConfig.recordDatabaseOperationTime("users", "saveUserWithoutEncodingPassword", () ->
                 userRepository.save(user)
         );
     }
 
     public List<User> findAll() {
         logger.debug("Finding all users");
-        return metricsConfig.recordDatabaseOperationTime("findAllUsers", () ->
+        return metricsConfig.recordDatabaseOperationTime("users", "findAllUsers", () ->
                 userRepository.findAll()
         );
     }
 
     public Page<User> findAllPaginated(Pageable pageable) {
         logger.debug("Finding paginated users with pageable: {}", pageable);
-        return metricsConfig.recordDatabaseOperationTime("findAllUsersPaginated", () ->
+        return metricsConfig.recordDatabaseOperationTime("users", "findAllUsersPaginated", () ->
                 userRepository.findAll(pageable)
         );
     }
 
+    public CursorSlice<User> findAllByCursor(String cursor, int size, String sortBy, Sort.Direction direction) {
+        logger.debug("Finding users by cursor, size {} sorted by {} {}", size, sortBy, direction);
+        return metricsConfig.recordDatabaseOperationTime("users", "findAllUsersByCursor", () -> {
+            // Password hashes are never returned from listings, so don't fetch them
+            Query query = new Query();
+            query.fields().exclude("password");
+            return cursorPaginationService.findSlice(query, User.class, cursor, size, sortBy, direction);
+        });
+    }
+
     public Optional<User> findByUsername(String username) {
         logger.debug("Finding user by username: {}", username);
-        return metricsConfig.recordDatabaseOperationTime("findUserByUsername", () ->
+        return metricsConfig.recordDatabaseOperationTime("users", "findUserByUsername", () ->
                 userRepository.findByUsername(username)
         );
     }
 
     public User updateRoles(String username, Set<Role> roles) {
         logger.info("Updating roles for user: {}", username);
-        return metricsConfig.recordDatabaseOperationTime("updateUserRoles", () -> {
-            Optional<User> userOpt = userRepository.findByUsername(username);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                user.setRoles(roles);
-                return userRepository.save(user);
-            } else {
-                throw new RuntimeException("User not found: " + username);
-            }
-        });
+        // Tokens carry the roles, so the ones issued so far are revoked
+        User updated = metricsConfig.recordDatabaseOperationTime("users", "updateUserRoles", () ->
+                updateByUsername(username, new Update().set("roles", roles).inc("securityVersion", 1))
+        );
+        if (updated == null) {
+            throw new RuntimeException("User not found: " + username);
+        }
+        principalCache.revoke(username, updated.getSecurityVersion());
+        return updated;
+    }
+
+    public Optional<User> setAccountLocked(String username, boolean locked) {
+        logger.info("{} account of user: {}", locked ? "Locking" : "Unlocking", username);
+        // Revokes the tokens issued so far and drops the cached account status
+        User updated = metricsConfig.recordDatabaseOperationTime("users", "setUserAccountLocked", () ->
+                updateByUsername(username, new Update().set("accountNonLocked", !locked).inc("securityVersion", 1))
+        );
+        if (updated == null) {
+            return Optional.empty();
+        }
+        principalCache.revoke(username, updated.getSecurityVersion());
+        return Optional.of(updated);
     }
 
     public boolean deleteByUsername(String username) {
         logger.info("Deleting user: {}", username);
-        return metricsConfig.recordDatabaseOperationTime("deleteUserByUsername", () -> {
-            Optional<User> userOpt = userRepository.findByUsername(username);
-            if (userOpt.isPresent()) {
-                userRepository.delete(userOpt.get());
-                return true;
-            }
+        User deleted = metricsConfig.recordDatabaseOperationTime("users", "deleteUserByUsername", () ->
+                mongoTemplate.findAndRemove(Query.query(Criteria.where("username").is(username)), User.class)
+        );
+        if (deleted == null) {
             return false;
-        });
+        }
+        principalCache.revoke(username, deleted.getSecurityVersion() + 1);
+        return true;
     }
 
     public User updatePassword(String username, String newPassword) {
         logger.info("Updating password for user: {}", username);
-        return metricsConfig.recordDatabaseOperationTime("updateUserPassword", () -> {
-            Optional<User> userOpt = userRepository.findByUsername(username);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                user.setPassword(passwordEncoder.encode(newPassword));
-                return userRepository.save(user);
-            } else {
-                throw new RuntimeException("User not found: " + username);
-            }
-        });
+        // Hashing is deliberately slow, keep it out of the database timing
+        return setEncodedPassword(username, encodePassword(newPassword))
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+    }
+
+    public String encodePassword(String rawPassword) {
+        return passwordEncoder.encode(rawPassword);
+    }
+
+    /**
+     * Stores a password encoded with encodePassword. Empty if the user does not exist.
+     */
+    public Optional<User> setEncodedPassword(String username, String encodedPassword) {
+        // Tokens issued with the old password are revoked, e.g. after a password reset
+        User updated = metricsConfig.recordDatabaseOperationTime("users", "updateUserPassword", () ->
+                updateByUsername(username, new Update().set("password", encodedPassword).inc("securityVersion", 1))
+        );
+        if (updated == null) {
+            return Optional.empty();
+        }
+        principalCache.revoke(username, updated.getSecurityVersion());
+        return Optional.of(updated);
+    }
+
+    /**
+     * Replaces the stored hash of the password the user just logged in with by one made with the
+     * current algorithm and cost. Skipped if the password was changed in the meantime. Unlike a
+     * password change this does not revoke tokens.
+     */
+    public UserDetails upgradePasswordHash(UserDetails user, String newEncodedPassword) {
+        User updated = metricsConfig.recordDatabaseOperationTime("users", "upgradeUserPasswordHash", () ->
+                mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("username").is(user.getUsername()).and("password").is(user.getPassword())),
+                        new Update().set("password", newEncodedPassword),
+                        FindAndModifyOptions.options().returnNew(true), User.class)
+        );
+        if (updated == null) {
+            logger.debug("Password of user {} changed during login, hash not upgraded", user.getUsername());
+            return user;
+        }
+        logger.info("Upgraded password hash of user: {}", user.getUsername());
+        return updated;
+    }
+
+    // One atomic findAndModify instead of findByUsername followed by a full save, so concurrent
+    // updates of other fields are not overwritten. Returns the updated user, or null if not found.
+    private User updateByUsername(String username, Update update) {
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("username").is(username)), update,
+                FindAndModifyOptions.options().returnNew(true), User.class);
     }
 
     public boolean isPasswordValid(String rawPassword, String encodedPassword) {
@@ -0,0 +1,28 @@
+-- Token bucket with greedy refill: capacity tokens per period, refilled continuously.
+-- KEYS[1] bucket key, ARGV[1] capacity, ARGV[2] period in milliseconds.
+-- Returns 1 if a token was taken, 0 if the bucket is empty.
+local capacity = tonumber(ARGV[1])
+local period = tonumber(ARGV[2])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', KEYS[1], 'tokens', 'timestamp')
+local tokens = tonumber(state[1])
+local timestamp = tonumber(state[2])
+if tokens == nil or timestamp == nil then
+    tokens = capacity
+    timestamp = now
+end
+
+tokens = math.min(capacity, tokens + math.max(0, now - timestamp) * capacity / period)
+
+local allowed = 0
+if tokens >= 1 then
+    tokens = tokens - 1
+    allowed = 1
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'timestamp', tostring(now))
+redis.call('PEXPIRE', KEYS[1], period)
+return allowed
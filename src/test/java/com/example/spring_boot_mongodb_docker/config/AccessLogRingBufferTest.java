@@ -0,0 +1,92 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessLogRingBufferTest {
+
+    @Test
+    void offer_ReturnsFalseWhenFull() {
+        // Arrange
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(4);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        boolean overflow = buffer.offer(4);
+
+        // Assert
+        assertFalse(overflow);
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void drain_ReturnsElementsInOrderAndFreesSlots() {
+        // Arrange
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            buffer.offer(i);
+        }
+
+        // Act
+        int first = buffer.drain(drained::add, 3);
+        buffer.offer(4);
+        buffer.offer(5);
+        int second = buffer.drain(drained::add, 10);
+
+        // Assert
+        assertEquals(3, first);
+        assertEquals(3, second);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void concurrentProducers_NoElementLostOrDuplicated() throws Exception {
+        // Arrange
+        int producers = 4;
+        int perProducer = 50_000;
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger dropped = new AtomicInteger();
+        Set<Integer> received = new HashSet<>();
+
+        // Act
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    if (!buffer.offer(base + i)) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        while (!executor.isTerminated()) {
+            buffer.drain(value -> assertTrue(received.add(value)), 256);
+        }
+        buffer.drain(value -> assertTrue(received.add(value)), Integer.MAX_VALUE);
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(producers * perProducer, received.size() + dropped.get());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class IndexRegistryTest extends MongoTestContainer {
+
+    @Autowired
+    private IndexRegistry indexRegistry;
+
+    @Autowired
+    private IndexesEndpoint indexesEndpoint;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        assertEquals(0, indexRegistry.ensureIndexes());
+    }
+
+    @Test
+    void findByUsername_UsesUniqueIndex() {
+        String plan = winningPlan("users", mongoTemplate.getCollection("users")
+                .find(new Document("username", "alice")).explain());
+
+        assertTrue(plan.contains("IXSCAN"), plan);
+        assertTrue(plan.contains("username_unique"), plan);
+    }
+
+    @Test
+    void findByEmail_UsesUniqueIndex() {
+        String plan = winningPlan("users", mongoTemplate.getCollection("users")
+                .find(new Document("email", "alice@example.com")).explain());
+
+        assertTrue(plan.contains("email_unique"), plan);
+    }
+
+    @Test
+    void findByToken_UsesUniqueIndex() {
+        String plan = winningPlan("password_reset_tokens", mongoTemplate.getCollection("password_reset_tokens")
+                .find(new Document("token", "abc")).explain());
+
+        assertTrue(plan.contains("token_unique"), plan);
+    }
+
+    @Test
+    void itemSorts_UseCompoundIndexesInBothDirections() {
+        for (String field : List.of("name", "price", "quantity")) {
+            String ascending = winningPlan("items", mongoTemplate.getCollection("items").find()
+                    .sort(new Document(field, 1).append("_id", 1)).limit(10).explain());
+            String descending = winningPlan("items", mongoTemplate.getCollection("items").find()
+                    .sort(new Document(field, -1)).limit(10).explain());
+
+            assertTrue(ascending.contains(field + "_id"), ascending);
+            assertFalse(ascending.contains("\"SORT\""), ascending);
+            assertTrue(descending.contains(field + "_id"), descending);
+            assertFalse(descending.contains("\"SORT\""), descending);
+        }
+    }
+
+    @Test
+    void passwordResetTokens_ExpireThroughTtlIndex() {
+        Document ttlIndex = mongoTemplate.getCollection("password_reset_tokens").listIndexes().into(new ArrayList<>())
+                .stream()
+                .filter(index -> "expiryDate_ttl".equals(index.getString("name")))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(0, ((Number) ttlIndex.get("expireAfterSeconds")).intValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexesEndpoint_ReportsNothingMissing() {
+        Map<String, Object> report = indexesEndpoint.indexes();
+
+        Map<String, Object> users = (Map<String, Object>) report.get("users");
+        assertTrue(((List<String>) users.get("missing")).isEmpty());
+        assertTrue(((Map<String, Long>) users.get("usage")).containsKey("username_unique"));
+    }
+
+    private String winningPlan(String collection, Document explain) {
+        assertNotNull(explain, "No explain output for " + collection);
+        // Only the chosen plan; rejected plans may well scan or sort
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        assertNotNull(winningPlan, "No winning plan for " + collection);
+        return winningPlan.toJson();
+    }
+}
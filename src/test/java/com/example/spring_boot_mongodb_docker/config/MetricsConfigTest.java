@@ -0,0 +1,56 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsConfigTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MetricsConfig metricsConfig;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricsConfig = new MetricsConfig(meterRegistry,
+                new Duration[]{Duration.ofMillis(10), Duration.ofMillis(100)}, Duration.ofMinutes(2));
+    }
+
+    @Test
+    void recordDatabaseOperationTime_TagsTimerByCollectionOperationAndOutcome() {
+        // Act
+        String result = metricsConfig.recordDatabaseOperationTime("items", "getItemById", () -> "item");
+        assertThrows(IllegalStateException.class, () ->
+                metricsConfig.recordDatabaseOperationTime("items", "getItemById", () -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        // Assert
+        assertEquals("item", result);
+        Timer success = meterRegistry.get("app.database.operation.time")
+                .tags("collection", "items", "operation", "getItemById", "outcome", "success").timer();
+        Timer error = meterRegistry.get("app.database.operation.time")
+                .tags("collection", "items", "operation", "getItemById", "outcome", "error").timer();
+        assertEquals(1, success.count());
+        assertEquals(1, error.count());
+        assertEquals(1, meterRegistry.get("app.database.operation.error").counter().count());
+    }
+
+    @Test
+    void recordDatabaseOperationTime_ReusesTimers() {
+        // Act
+        metricsConfig.recordDatabaseOperationTime("users", "findAllUsers", () -> null);
+        metricsConfig.recordDatabaseOperationTime("users", "findAllUsers", () -> null);
+        metricsConfig.recordDatabaseOperationTime("items", "getAllItems", () -> null);
+
+        // Assert
+        assertEquals(4, metricsConfig.getDatabaseOperationTimers().size());
+        assertEquals(2, meterRegistry.get("app.database.operation.time")
+                .tags("collection", "users", "operation", "findAllUsers", "outcome", "success").timer().count());
+    }
+}
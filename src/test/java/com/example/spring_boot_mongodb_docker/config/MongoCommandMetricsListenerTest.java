@@ -0,0 +1,51 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MongoCommandMetricsListenerTest {
+
+    @Test
+    void queryShape_KeepsOnlyFilterAndSortKeys() {
+        // Arrange
+        BsonDocument command = BsonDocument.parse("{find: 'users', filter: {username: 'alice', "
+                + "roles: {$in: ['ROLE_ADMIN', 'ROLE_USER']}}, sort: {username: 1}, limit: 10, "
+                + "$db: 'springdb', lsid: {id: 'abc'}}");
+
+        // Act
+        BsonDocument shape = MongoCommandMetricsListener.queryShape(command);
+
+        // Assert
+        assertEquals(BsonDocument.parse("{find: 'users', filter: {username: '?', roles: '?'}, "
+                + "sort: {username: '?'}}"), shape);
+        assertFalse(shape.toJson().contains("alice"));
+    }
+
+    @Test
+    void queryShape_KeepsPipelineStageNames() {
+        // Arrange
+        BsonDocument command = BsonDocument.parse("{aggregate: 'items', pipeline: [{$match: {price: {$gt: 5}}}, "
+                + "{$group: {_id: '$name', total: {$sum: '$quantity'}}}], cursor: {}}");
+
+        // Act
+        BsonDocument shape = MongoCommandMetricsListener.queryShape(command);
+
+        // Assert
+        assertEquals(BsonDocument.parse("{aggregate: 'items', pipeline: ['$match', '$group']}"), shape);
+    }
+
+    @Test
+    void queryShape_SkipsWrittenDocuments() {
+        // Arrange
+        BsonDocument insert = BsonDocument.parse("{insert: 'items', ordered: false, "
+                + "documents: [{name: 'Laptop', price: 999}, {name: 'Mouse', price: 25}]}");
+        BsonDocument update = BsonDocument.parse("{update: 'items', "
+                + "updates: [{q: {_id: 'abc'}, u: {$set: {name: 'Laptop'}}, upsert: true}]}");
+
+        // Act & Assert
+        assertEquals(BsonDocument.parse("{insert: 'items'}"), MongoCommandMetricsListener.queryShape(insert));
+        assertEquals(BsonDocument.parse("{update: 'items'}"), MongoCommandMetricsListener.queryShape(update));
+    }
+}
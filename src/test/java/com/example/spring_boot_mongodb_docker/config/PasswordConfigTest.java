@@ -0,0 +1,71 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordConfigTest {
+
+    private final PasswordHashingExecutor executor =
+            new PasswordHashingExecutor(new SimpleMeterRegistry(), 1, 16, Duration.ofSeconds(30));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void passwordEncoder_VerifiesAndUpgradesLegacyBCryptHashes() {
+        // Arrange
+        PasswordEncoder encoder = encoder(PasswordConfig.BCRYPT, 5, 0);
+        String legacyHash = new BCryptPasswordEncoder(4).encode("secret");
+        String weakerHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+
+        // Act
+        String newHash = encoder.encode("secret");
+
+        // Assert
+        assertTrue(newHash.startsWith("{bcrypt}$2a$05$"), newHash);
+        assertTrue(encoder.matches("secret", legacyHash));
+        assertTrue(encoder.upgradeEncoding(legacyHash));
+        assertTrue(encoder.upgradeEncoding(weakerHash));
+        assertFalse(encoder.upgradeEncoding(newHash));
+    }
+
+    @Test
+    void passwordEncoder_WithArgon2_StillVerifiesBCryptHashes() {
+        // Arrange
+        PasswordEncoder bcrypt = encoder(PasswordConfig.BCRYPT, 4, 0);
+        PasswordEncoder argon2 = encoder(PasswordConfig.ARGON2, 4, 2);
+        String bcryptHash = bcrypt.encode("secret");
+
+        // Act
+        String argon2Hash = argon2.encode("secret");
+
+        // Assert
+        assertTrue(argon2Hash.startsWith("{argon2}"), argon2Hash);
+        assertTrue(argon2.matches("secret", argon2Hash));
+        assertFalse(argon2.matches("wrong", argon2Hash));
+        assertTrue(argon2.matches("secret", bcryptHash));
+        assertTrue(argon2.upgradeEncoding(bcryptHash));
+        assertFalse(argon2.upgradeEncoding(argon2Hash));
+    }
+
+    @Test
+    void calibrator_StaysWithinBounds() {
+        // Act & Assert
+        assertEquals(4, new PasswordHashCalibrator(Duration.ZERO).calibrateBCryptStrength(4, 8));
+        assertEquals(5, new PasswordHashCalibrator(Duration.ofMinutes(1)).calibrateBCryptStrength(4, 5));
+    }
+
+    private PasswordEncoder encoder(String algorithm, int bcryptStrength, int argon2Iterations) {
+        return new PasswordConfig().passwordEncoder(executor, algorithm, Duration.ofMillis(50),
+                bcryptStrength, 4096, 1, argon2Iterations);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import com.example.spring_boot_mongodb_docker.exception.ThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+    // Callers block until their hash is done, so each one needs its own thread
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private final CountDownLatch workerBusy = new CountDownLatch(1);
+    private final CountDownLatch releaseWorker = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(meterRegistry, 1, 4, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseWorker.countDown();
+        executor.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void execute_RejectsWhenQueueIsFull() throws Exception {
+        // Arrange
+        CompletableFuture<Boolean> blocking = occupyWorker();
+        List<CompletableFuture<String>> queued = List.of(
+                submit(PasswordHashingExecutor.Priority.HIGH, "1", null),
+                submit(PasswordHashingExecutor.Priority.HIGH, "2", null),
+                submit(PasswordHashingExecutor.Priority.HIGH, "3", null),
+                submit(PasswordHashingExecutor.Priority.HIGH, "4", null));
+        awaitQueued(4);
+
+        // Act & Assert
+        assertThrows(ThrottledException.class, () -> executor.execute("matches", () -> "5"));
+        assertThrows(ThrottledException.class, () -> executor.callWithPriority(PasswordHashingExecutor.Priority.LOW,
+                () -> executor.execute("matches", () -> "6")));
+        assertEquals(1, meterRegistry.get("app.password.hashing.rejected").tag("priority", "high").counter().count());
+        assertEquals(1, meterRegistry.get("app.password.hashing.rejected").tag("priority", "low").counter().count());
+
+        releaseWorker.countDown();
+        assertTrue(blocking.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<String> future : queued) {
+            assertNotNull(future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, executor.getQueued());
+    }
+
+    @Test
+    void execute_RunsHighPriorityFirstAndGivesLowPriorityHalfTheQueue() throws Exception {
+        // Arrange
+        List<String> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Boolean> blocking = occupyWorker();
+        CompletableFuture<String> low1 = submit(PasswordHashingExecutor.Priority.LOW, "low-1", order);
+        awaitQueued(1);
+        CompletableFuture<String> low2 = submit(PasswordHashingExecutor.Priority.LOW, "low-2", order);
+        awaitQueued(2);
+        CompletableFuture<String> high = submit(PasswordHashingExecutor.Priority.HIGH, "high", order);
+        awaitQueued(3);
+
+        // Act
+        ThrottledException rejected = assertThrows(ThrottledException.class, () ->
+                executor.callWithPriority(PasswordHashingExecutor.Priority.LOW,
+                        () -> executor.execute("matches", () -> "low-3")));
+        releaseWorker.countDown();
+
+        // Assert
+        assertEquals(5, rejected.getRetryAfterSeconds());
+        blocking.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(low1, low2, high).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("high", "low-1", "low-2"), order);
+        assertEquals(4, meterRegistry.get("app.password.hashing.time").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void execute_RecordsHashTimeOnTimersRegisteredUpFront() {
+        // Assert: both timers exist before any hash ran
+        assertEquals(0, meterRegistry.get("app.password.hashing.time").tag("operation", "encode").timer().count());
+        assertEquals(0, meterRegistry.get("app.password.hashing.time").tag("operation", "matches").timer().count());
+
+        // Act
+        executor.execute("encode", () -> "hash");
+        executor.execute("encode", () -> "hash");
+        executor.execute("rehash", () -> "hash");
+
+        // Assert
+        assertEquals(2, meterRegistry.get("app.password.hashing.time").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("app.password.hashing.time").tag("operation", "rehash").timer().count());
+    }
+
+    private CompletableFuture<Boolean> occupyWorker() throws InterruptedException {
+        CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(() -> executor.execute("matches", () -> {
+            workerBusy.countDown();
+            return releaseWorker.await(5, TimeUnit.SECONDS);
+        }), callers);
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+        return future;
+    }
+
+    private CompletableFuture<String> submit(PasswordHashingExecutor.Priority priority, String result, List<String> order) {
+        return CompletableFuture.supplyAsync(() -> executor.callWithPriority(priority, () ->
+                executor.execute("matches", () -> {
+                    if (order != null) {
+                        order.add(result);
+                    }
+                    return result;
+                })), callers);
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getQueued() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, executor.getQueued());
+    }
+}
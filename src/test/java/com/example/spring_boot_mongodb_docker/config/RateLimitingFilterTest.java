@@ -0,0 +1,85 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitingFilterTest {
+
+    private RateLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setDefaultLimit(new RateLimitProperties.Limit(2, Duration.ofMinutes(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rejectsRequestsOverTheDefaultLimitPerIp() throws Exception {
+        // Arrange
+        RateLimitingFilter filter = new RateLimitingFilter(properties, new LocalBucketStore(properties));
+
+        // Act & Assert
+        assertEquals(200, send(filter, "GET", "/api/items", "10.0.0.1"));
+        assertEquals(200, send(filter, "GET", "/api/items", "10.0.0.1"));
+        assertEquals(429, send(filter, "GET", "/api/items", "10.0.0.1"));
+        assertEquals(200, send(filter, "GET", "/api/items", "10.0.0.2"));
+    }
+
+    @Test
+    void appliesFirstMatchingRouteLimit() throws Exception {
+        // Arrange
+        RateLimitProperties.RouteLimit login = new RateLimitProperties.RouteLimit();
+        login.setPattern("/api/auth/**");
+        login.setMethods(List.of("POST"));
+        login.setCapacity(1);
+        login.setPeriod(Duration.ofMinutes(1));
+        properties.setRoutes(List.of(login));
+        RateLimitingFilter filter = new RateLimitingFilter(properties, new LocalBucketStore(properties));
+
+        // Act & Assert
+        assertEquals(200, send(filter, "POST", "/api/auth/login", "10.0.0.1"));
+        assertEquals(429, send(filter, "POST", "/api/auth/login", "10.0.0.1"));
+        // Other routes and methods still use the default limit
+        assertEquals(200, send(filter, "GET", "/api/auth/login", "10.0.0.1"));
+        assertEquals(200, send(filter, "GET", "/api/items", "10.0.0.1"));
+    }
+
+    @Test
+    void countsAuthenticatedRequestsPerUser() throws Exception {
+        // Arrange
+        properties.setUserLimit(new RateLimitProperties.Limit(3, Duration.ofMinutes(1)));
+        RateLimitingFilter filter = new RateLimitingFilter(properties, new LocalBucketStore(properties));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+
+        // Act & Assert: the same user is limited across addresses
+        assertEquals(200, send(filter, "GET", "/api/items", "10.0.0.1"));
+        assertEquals(200, send(filter, "GET", "/api/items", "10.0.0.2"));
+        assertEquals(200, send(filter, "GET", "/api/items", "10.0.0.3"));
+        assertEquals(429, send(filter, "GET", "/api/items", "10.0.0.4"));
+    }
+
+    private int send(RateLimitingFilter filter, String method, String uri, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TwoTierCacheManagerTest {
+
+    private static final String CHANNEL = "cache:invalidation";
+
+    @Mock
+    private CacheManager remoteCacheManager;
+
+    @Mock
+    private Cache remote;
+
+    @Mock
+    private StringRedisTemplate redisTemplateA;
+
+    @Mock
+    private StringRedisTemplate redisTemplateB;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    // Two nodes sharing the same L2
+    private TwoTierCacheManager nodeA;
+    private TwoTierCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new TwoTierCacheManager(remoteCacheManager, redisTemplateA, new SimpleMeterRegistry(),
+                CHANNEL, 100, Duration.ofMinutes(1));
+        nodeB = new TwoTierCacheManager(remoteCacheManager, redisTemplateB, new SimpleMeterRegistry(),
+                CHANNEL, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getCache_ReturnsOneCachePerNameAndNullForUnknownCaches() {
+        // Arrange
+        when(remoteCacheManager.getCache("items")).thenReturn(remote);
+
+        // Act & Assert
+        Cache items = nodeA.getCache("items");
+        assertInstanceOf(TwoTierCache.class, items);
+        assertSame(items, nodeA.getCache("items"));
+        assertNull(nodeA.getCache("unknown"));
+    }
+
+    @Test
+    void evictFromOtherNode_DropsOnlyThatKeyFromL1() {
+        // Arrange
+        when(remoteCacheManager.getCache("items")).thenReturn(remote);
+        when(remote.get("k")).thenReturn(new SimpleValueWrapper("v1"), new SimpleValueWrapper("v2"));
+        when(remote.get("other")).thenReturn(new SimpleValueWrapper("o"));
+        Cache cacheB = nodeB.getCache("items");
+        cacheB.get("k");
+        cacheB.get("other");
+
+        // Act
+        nodeA.getCache("items").put("k", "v2");
+        deliver(nodeB, published(redisTemplateA));
+
+        // Assert
+        assertEquals("v2", cacheB.get("k").get());
+        assertEquals("o", cacheB.get("other").get());
+        verify(remote, times(2)).get("k");
+        verify(remote, times(1)).get("other");
+        // Only the local tier of node B is touched
+        verify(remote, never()).evict(any());
+        verifyNoInteractions(redisTemplateB);
+    }
+
+    @Test
+    void evictWithNonStringKey_ClearsWholeL1OnOtherNodes() {
+        // Arrange
+        when(remoteCacheManager.getCache("items")).thenReturn(remote);
+        when(remote.get(1L)).thenReturn(new SimpleValueWrapper("one"));
+        when(remote.get("other")).thenReturn(new SimpleValueWrapper("o"));
+        Cache cacheB = nodeB.getCache("items");
+        cacheB.get(1L);
+        cacheB.get("other");
+
+        // Act
+        nodeA.getCache("items").evict(1L);
+        String message = published(redisTemplateA);
+        deliver(nodeB, message);
+
+        // Assert
+        assertTrue(message.endsWith("|C|items|"), message);
+        cacheB.get(1L);
+        cacheB.get("other");
+        verify(remote, times(2)).get(1L);
+        verify(remote, times(2)).get("other");
+    }
+
+    @Test
+    void ownMessages_AreIgnored() {
+        // Arrange
+        when(remoteCacheManager.getCache("items")).thenReturn(remote);
+        Cache cacheA = nodeA.getCache("items");
+        cacheA.put("k", "v");
+
+        // Act
+        deliver(nodeA, published(redisTemplateA));
+
+        // Assert
+        assertEquals("v", cacheA.get("k").get());
+        verify(remote, never()).get("k");
+    }
+
+    @Test
+    void malformedMessagesAndUnknownCaches_AreIgnored() {
+        // Act & Assert
+        assertDoesNotThrow(() -> deliver(nodeB, "garbage"));
+        assertDoesNotThrow(() -> deliver(nodeB, "other-node|C|unknown|"));
+    }
+
+    @Test
+    void cacheConfig_RegistersTheManagerOnTheInvalidationChannel() {
+        // Arrange
+        CacheConfig cacheConfig = new CacheConfig();
+        ReflectionTestUtils.setField(cacheConfig, "nearCacheEnabled", true);
+        ReflectionTestUtils.setField(cacheConfig, "nearCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(cacheConfig, "nearCacheTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cacheConfig, "invalidationChannel", CHANNEL);
+
+        // Act
+        CacheManager cacheManager = cacheConfig.cacheManager(mock(RedisConnectionFactory.class), redisTemplateA,
+                listenerContainer, new SimpleMeterRegistry());
+
+        // Assert
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        ArgumentCaptor<Topic> topic = ArgumentCaptor.forClass(Topic.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), topic.capture());
+        assertInstanceOf(TwoTierCacheManager.class, cacheManager);
+        assertSame(cacheManager, listener.getValue());
+        assertEquals(CHANNEL, topic.getValue().getTopic());
+    }
+
+    private static String published(StringRedisTemplate redisTemplate) {
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, atLeastOnce()).convertAndSend(eq(CHANNEL), message.capture());
+        return message.getValue();
+    }
+
+    private static void deliver(TwoTierCacheManager node, String body) {
+        node.onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.spring_boot_mongodb_docker.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TwoTierCacheTest {
+
+    private static final String CHANNEL = "cache:invalidation";
+
+    @Mock
+    private CacheManager remoteCacheManager;
+
+    @Mock
+    private Cache remote;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(remoteCacheManager.getCache("items")).thenReturn(remote);
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(remoteCacheManager, redisTemplate, meterRegistry,
+                CHANNEL, 100, Duration.ofMinutes(1));
+        cache = cacheManager.getCache("items");
+    }
+
+    @Test
+    void get_MissFillsL1FromL2() {
+        // Arrange
+        when(remote.get("k")).thenReturn(new SimpleValueWrapper("v"));
+
+        // Act
+        Cache.ValueWrapper first = cache.get("k");
+        Cache.ValueWrapper second = cache.get("k");
+
+        // Assert
+        assertEquals("v", first.get());
+        assertEquals("v", second.get());
+        verify(remote, times(1)).get("k");
+        assertEquals(1, gets("l1", "miss"));
+        assertEquals(1, gets("l1", "hit"));
+        assertEquals(1, gets("l2", "hit"));
+    }
+
+    @Test
+    void get_MissInBothTiersIsNotCachedLocally() {
+        // Arrange
+        when(remote.get("k")).thenReturn(null);
+
+        // Act
+        Cache.ValueWrapper first = cache.get("k");
+        Cache.ValueWrapper second = cache.get("k");
+
+        // Assert
+        assertNull(first);
+        assertNull(second);
+        verify(remote, times(2)).get("k");
+        assertEquals(2, gets("l2", "miss"));
+        assertEquals(0, gets("l1", "hit"));
+    }
+
+    @Test
+    void get_CachedNullIsServedFromL1() {
+        // Arrange
+        when(remote.get("k")).thenReturn(new SimpleValueWrapper(null));
+
+        // Act
+        cache.get("k");
+        Cache.ValueWrapper cached = cache.get("k");
+
+        // Assert
+        assertNotNull(cached);
+        assertNull(cached.get());
+        verify(remote, times(1)).get("k");
+    }
+
+    @Test
+    void get_WithLoaderStoresTheLoadedValueInBothTiers() {
+        // Arrange
+        when(remote.get("k")).thenReturn(null);
+
+        // Act
+        String loaded = cache.get("k", () -> "loaded");
+        String cached = cache.get("k", () -> "loaded again");
+
+        // Assert
+        assertEquals("loaded", loaded);
+        assertEquals("loaded", cached);
+        verify(remote).put("k", "loaded");
+        verify(remote, times(1)).get("k");
+    }
+
+    @Test
+    void get_WithTypeRejectsValuesOfAnotherType() {
+        // Arrange
+        when(remote.get("k")).thenReturn(new SimpleValueWrapper(42));
+
+        // Act & Assert
+        assertEquals(42, cache.get("k", Integer.class));
+        assertThrows(IllegalStateException.class, () -> cache.get("k", String.class));
+    }
+
+    @Test
+    void put_WritesBothTiersAndNotifiesOtherNodes() {
+        // Act
+        cache.put("k", "v");
+
+        // Assert
+        assertEquals("v", cache.get("k").get());
+        verify(remote).put("k", "v");
+        verify(remote, never()).get("k");
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), endsWith("|E|items|k"));
+    }
+
+    @Test
+    void putIfAbsent_KeepsTheExistingL2ValueLocally() {
+        // Arrange
+        when(remote.putIfAbsent("k", "new")).thenReturn(new SimpleValueWrapper("existing"));
+
+        // Act
+        Cache.ValueWrapper existing = cache.putIfAbsent("k", "new");
+
+        // Assert
+        assertEquals("existing", existing.get());
+        assertEquals("existing", cache.get("k").get());
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void evict_RemovesFromBothTiersAndNotifiesOtherNodes() {
+        // Arrange
+        cache.put("k", "v");
+        when(remote.get("k")).thenReturn(null);
+
+        // Act
+        cache.evict("k");
+
+        // Assert
+        assertNull(cache.get("k"));
+        verify(remote).evict("k");
+        verify(redisTemplate, times(2)).convertAndSend(eq(CHANNEL), endsWith("|E|items|k"));
+    }
+
+    @Test
+    void clear_ClearsBothTiersAndNotifiesOtherNodes() {
+        // Arrange
+        cache.put("k", "v");
+        when(remote.get("k")).thenReturn(null);
+
+        // Act
+        cache.clear();
+
+        // Assert
+        assertNull(cache.get("k"));
+        verify(remote).clear();
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), endsWith("|C|items|"));
+    }
+
+    private double gets(String tier, String result) {
+        return meterRegistry.get("app.cache.gets").tag("cache", "items").tag("tier", tier).tag("result", result)
+                .counter().count();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.spring_boot_mongodb_docker.controller;
+
+import com.example.spring_boot_mongodb_docker.config.MetricsConfig;
+import com.example.spring_boot_mongodb_docker.config.PasswordHashingExecutor;
+import com.example.spring_boot_mongodb_docker.model.User;
+import com.example.spring_boot_mongodb_docker.service.JwtService;
+import com.example.spring_boot_mongodb_docker.service.LoginAttemptTracker;
+import com.example.spring_boot_mongodb_docker.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthControllerTest {
+
+    // Every request reaches the application through the same proxy
+    private static final String PROXY = "10.0.0.1";
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserService userService;
+
+    private PasswordHashingExecutor passwordHashingExecutor;
+    private AuthController authController;
+
+    @BeforeEach
+    void setUp() {
+        MetricsConfig metricsConfig = new MetricsConfig(new SimpleMeterRegistry(),
+                new Duration[]{Duration.ofMillis(10)}, Duration.ofMinutes(2));
+        LoginAttemptTracker loginAttemptTracker = new LoginAttemptTracker(1, Duration.ofMinutes(1),
+                Duration.ofMinutes(15), Duration.ofMinutes(15), 1000);
+        passwordHashingExecutor = new PasswordHashingExecutor(new SimpleMeterRegistry(), 1, 4, Duration.ofSeconds(2));
+        authController = new AuthController(authenticationManager, userDetailsService, jwtService, userService,
+                metricsConfig, loginAttemptTracker, passwordHashingExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    void authenticateUser_BlocksOnlyTheForwardedClientThatFailed() {
+        // Arrange
+        User alice = new User("alice", "hash", "alice@example.com");
+        Authentication authenticated = new UsernamePasswordAuthenticationToken(alice, null, List.of());
+        when(authenticationManager.authenticate(any()))
+                .thenThrow(new BadCredentialsException("Bad credentials"))
+                .thenThrow(new BadCredentialsException("Bad credentials"))
+                .thenReturn(authenticated);
+        when(jwtService.generateToken(alice)).thenReturn("jwt");
+
+        // Act
+        int firstFailure = login("wrong", "203.0.113.7");
+        int secondFailure = login("wrong", "203.0.113.7");
+        int blocked = login("wrong", "203.0.113.7");
+        int otherClient = login("right", "198.51.100.20");
+
+        // Assert
+        assertEquals(401, firstFailure);
+        assertEquals(401, secondFailure);
+        assertEquals(429, blocked);
+        assertEquals(200, otherClient);
+        verify(authenticationManager, times(3)).authenticate(any());
+    }
+
+    private int login(String password, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(PROXY);
+        request.addHeader("X-Forwarded-For", forwardedFor + ", " + PROXY);
+        return authController.authenticateUser(Map.of("username", "alice", "password", password), request)
+                .getStatusCode().value();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.spring_boot_mongodb_docker.controller;
+
+import com.example.spring_boot_mongodb_docker.config.MongoTestContainer;
+import com.example.spring_boot_mongodb_docker.model.FileBlob;
+import com.example.spring_boot_mongodb_docker.model.FileDocument;
+import com.example.spring_boot_mongodb_docker.repository.FileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "uploader")
+public class FileControllerIntegrationTest extends MongoTestContainer {
+
+    private static final String UPLOADED = "File uploaded successfully with ID: ";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        fileRepository.deleteAll();
+        mongoTemplate.dropCollection(FileBlob.class);
+        mongoTemplate.dropCollection("fs.files");
+        mongoTemplate.dropCollection("fs.chunks");
+    }
+
+    @Test
+    void uploadAndDownload_RoundTripsContentThroughGridFs() throws Exception {
+        // Arrange: larger than one GridFS chunk (255 KiB), so the download spans several chunks
+        byte[] content = randomBytes(600_000);
+
+        // Act
+        String id = upload("report.bin", "application/octet-stream", content);
+
+        // Assert
+        mockMvc.perform(get("/api/files/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/octet-stream"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report.bin\""))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, content.length))
+                .andExpect(content().bytes(content));
+
+        FileDocument stored = fileRepository.findById(id).orElseThrow();
+        assertNull(stored.getData());
+        assertNotNull(stored.getGridFsId());
+        assertEquals("uploader", stored.getUploadedBy());
+        assertEquals(content.length, stored.getSize());
+    }
+
+    @Test
+    void uploadAndDownload_RoundTripsEmptyFile() throws Exception {
+        // Arrange
+        byte[] content = new byte[0];
+
+        // Act
+        String id = upload("empty.txt", "text/plain", content);
+
+        // Assert
+        mockMvc.perform(get("/api/files/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(content));
+    }
+
+    @Test
+    void getFile_IfNoneMatchWithCurrentETagReturnsNotModified() throws Exception {
+        // Arrange
+        String id = upload("notes.txt", "text/plain", asciiBytes(100));
+        String eTag = mockMvc.perform(get("/api/files/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/files/{id}", id).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/api/files/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getFile_IfModifiedSinceLastModifiedReturnsNotModified() throws Exception {
+        // Arrange
+        String id = upload("notes.txt", "text/plain", asciiBytes(100));
+        String lastModified = mockMvc.perform(get("/api/files/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(lastModified);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/files/{id}", id).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/files/{id}", id).header(HttpHeaders.IF_MODIFIED_SINCE, "Thu, 01 Jan 1970 00:00:00 GMT"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getFile_SingleRangeReturnsPartialContent() throws Exception {
+        // Arrange: the range starts in the second GridFS chunk
+        byte[] content = randomBytes(600_000);
+        String id = upload("report.bin", "application/octet-stream", content);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/files/{id}", id).header(HttpHeaders.RANGE, "bytes=300000-300099"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 300000-300099/600000"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 100))
+                .andExpect(content().bytes(Arrays.copyOfRange(content, 300_000, 300_100)));
+    }
+
+    @Test
+    void getFile_MultipleRangesReturnMultipartByteranges() throws Exception {
+        // Arrange
+        byte[] content = asciiBytes(100);
+        String id = upload("notes.txt", "text/plain", content);
+
+        // Act
+        MockHttpServletResponse response = mockMvc.perform(get("/api/files/{id}", id)
+                        .header(HttpHeaders.RANGE, "bytes=0-9,90-99"))
+                .andExpect(status().isPartialContent())
+                .andReturn().getResponse();
+
+        // Assert
+        assertTrue(response.getContentType().startsWith("multipart/byteranges"), response.getContentType());
+        String body = response.getContentAsString(StandardCharsets.US_ASCII);
+        assertTrue(body.contains("Content-Range: bytes 0-9/100"), body);
+        assertTrue(body.contains("Content-Range: bytes 90-99/100"), body);
+        assertTrue(body.contains(new String(content, 0, 10, StandardCharsets.US_ASCII)), body);
+        assertTrue(body.contains(new String(content, 90, 10, StandardCharsets.US_ASCII)), body);
+    }
+
+    @Test
+    void getFile_UnsatisfiableRangeReturnsRangeNotSatisfiable() throws Exception {
+        // Arrange
+        String id = upload("notes.txt", "text/plain", asciiBytes(100));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/files/{id}", id).header(HttpHeaders.RANGE, "bytes=500-600"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */100"));
+    }
+
+    private String upload(String filename, String contentType, byte[] content) throws Exception {
+        String body = mockMvc.perform(multipart("/api/files/upload")
+                        .file(new MockMultipartFile("file", filename, contentType, content)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(body.startsWith(UPLOADED), body);
+        return body.substring(UPLOADED.length());
+    }
+
+    private static byte[] asciiBytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        return bytes;
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -15,6 +15,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -135,6 +136,48 @@ public class ItemControllerIntegrationTest extends MongoTestContainer {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testPatchItemDecrementsQuantityAtomically() throws Exception {
+        String itemId = testItem.getId();
+
+        mockMvc.perform(patch("/api/items/{id}", itemId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantityDelta\": -3, \"price\": 17.5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Test Item")))
+                .andExpect(jsonPath("$.price", is(17.5)))
+                .andExpect(jsonPath("$.quantity", is(7)))
+                .andExpect(jsonPath("$.version", is(1)));
+
+        Item stored = itemRepository.findById(itemId).orElseThrow();
+        assertEquals(7, stored.getQuantity());
+        assertEquals(1L, stored.getVersion());
+    }
+
+    @Test
+    void testPatchItemRejectsNegativeQuantity() throws Exception {
+        mockMvc.perform(patch("/api/items/{id}", testItem.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantityDelta\": -11}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testPatchItemRejectsStaleVersion() throws Exception {
+        mockMvc.perform(patch("/api/items/{id}", testItem.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Renamed\", \"version\": 5}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testPatchItemNotFound() throws Exception {
+        mockMvc.perform(patch("/api/items/nonexistentid")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantityDelta\": 1}"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testDeleteItem() throws Exception {
         String itemId = testItem.getId();
@@ -0,0 +1,133 @@
+package com.example.spring_boot_mongodb_docker.controller;
+
+import com.example.spring_boot_mongodb_docker.config.MongoTestContainer;
+import com.example.spring_boot_mongodb_docker.model.Item;
+import com.example.spring_boot_mongodb_docker.repository.ItemRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+public class ItemExportIntegrationTest extends MongoTestContainer {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    void export_WritesOneItemPerLineAsNdjson() throws Exception {
+        // Arrange
+        List<Item> saved = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            saved.add(itemRepository.save(new Item("Item " + i, "Description " + i, i + 0.5, i)));
+        }
+
+        // Act
+        MvcResult result = export(get("/api/items/export"));
+
+        // Assert
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, result.getResponse().getContentType());
+        assertEquals("attachment; filename=\"items.ndjson\"",
+                result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION));
+        assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+        List<Item> exported = parseLines(body);
+        assertEquals(saved.size(), exported.size());
+        assertEquals(saved.stream().map(Item::getId).collect(Collectors.toSet()),
+                exported.stream().map(Item::getId).collect(Collectors.toSet()));
+        Item first = exported.stream().filter(item -> item.getId().equals(saved.get(0).getId())).findFirst().orElseThrow();
+        assertEquals("Item 0", first.getName());
+        assertEquals(0.5, first.getPrice());
+    }
+
+    @Test
+    void export_EmptyCollectionWritesNothing() throws Exception {
+        // Act
+        MvcResult result = export(get("/api/items/export"));
+
+        // Assert
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, result.getResponse().getContentType());
+        assertEquals(0, result.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    void export_GzipCompressesTheSameLines() throws Exception {
+        // Arrange
+        itemRepository.save(new Item("Gaming Laptop", "Fast", 999.0, 2));
+        itemRepository.save(new Item("Mouse Pad", "Soft", 9.0, 20));
+
+        // Act
+        MvcResult result = export(get("/api/items/export").param("gzip", "true"));
+
+        // Assert
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, result.getResponse().getContentType());
+        assertEquals("gzip", result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        String body;
+        try (InputStream inputStream = new GZIPInputStream(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(Set.of("Gaming Laptop", "Mouse Pad"),
+                parseLines(body).stream().map(Item::getName).collect(Collectors.toSet()));
+    }
+
+    // The body is a StreamingResponseBody, written during the async dispatch
+    private MvcResult export(MockHttpServletRequestBuilder exportRequest) throws Exception {
+        MvcResult started = mockMvc.perform(exportRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private List<Item> parseLines(String body) throws IOException {
+        List<Item> items = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                items.add(objectMapper.readValue(line, Item.class));
+            }
+        }
+        return items;
+    }
+}
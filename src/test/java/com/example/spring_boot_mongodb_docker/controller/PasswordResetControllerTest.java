@@ -0,0 +1,83 @@
+package com.example.spring_boot_mongodb_docker.controller;
+
+import com.example.spring_boot_mongodb_docker.model.User;
+import com.example.spring_boot_mongodb_docker.service.EmailService;
+import com.example.spring_boot_mongodb_docker.service.PasswordResetService;
+import com.example.spring_boot_mongodb_docker.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PasswordResetControllerTest {
+
+    private static final String NEW_PASSWORD = "N3wPassw0rd!";
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PasswordResetService passwordResetService;
+
+    @Mock
+    private EmailService emailService;
+
+    private PasswordResetController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new PasswordResetController(userService, passwordResetService, emailService);
+    }
+
+    @Test
+    void resetPassword_UnknownTokenNeverReachesTheEncoder() {
+        // Arrange
+        when(passwordResetService.isRedeemable("made-up")).thenReturn(false);
+
+        // Act
+        ResponseEntity<?> response = controller.resetPassword(Map.of("token", "made-up", "newPassword", NEW_PASSWORD));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(userService, never()).encodePassword(anyString());
+        verify(passwordResetService, never()).redeem(anyString());
+    }
+
+    @Test
+    void resetPassword_ValidTokenSetsEncodedPassword() {
+        // Arrange
+        when(passwordResetService.isRedeemable("valid")).thenReturn(true);
+        when(userService.encodePassword(NEW_PASSWORD)).thenReturn("encoded");
+        when(passwordResetService.redeem("valid")).thenReturn(Optional.of("alice"));
+        when(userService.setEncodedPassword("alice", "encoded")).thenReturn(Optional.of(new User()));
+
+        // Act
+        ResponseEntity<?> response = controller.resetPassword(Map.of("token", "valid", "newPassword", NEW_PASSWORD));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(userService).setEncodedPassword("alice", "encoded");
+    }
+
+    @Test
+    void resetPassword_WeakPasswordKeepsTheToken() {
+        // Act
+        ResponseEntity<?> response = controller.resetPassword(Map.of("token", "valid", "newPassword", "weak"));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(passwordResetService);
+        verify(userService, never()).encodePassword(anyString());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.exception.InvalidCursorException;
+import com.example.spring_boot_mongodb_docker.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class CursorPaginationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private CursorPaginationService cursorPaginationService;
+
+    @BeforeEach
+    void setUp() {
+        cursorPaginationService = new CursorPaginationService(mongoTemplate, 100);
+    }
+
+    @Test
+    void findSlice_RejectsSizeOutOfRangeWithoutQuerying() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () ->
+                cursorPaginationService.findSlice(new Query(), Item.class, null, 0, "name", Sort.Direction.ASC));
+        assertThrows(InvalidCursorException.class, () ->
+                cursorPaginationService.findSlice(new Query(), Item.class, null, -5, "name", Sort.Direction.ASC));
+        assertThrows(InvalidCursorException.class, () ->
+                cursorPaginationService.findSlice(new Query(), Item.class, null, 101, "name", Sort.Direction.ASC));
+        verifyNoInteractions(mongoTemplate);
+    }
+}
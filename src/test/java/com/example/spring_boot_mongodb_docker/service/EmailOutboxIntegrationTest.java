@@ -0,0 +1,128 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.config.MongoTestContainer;
+import com.example.spring_boot_mongodb_docker.model.OutboxEmail;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Workers are disabled so each test drives the outbox batch by batch
+@SpringBootTest(properties = "app.email.outbox.workers=0")
+@ActiveProfiles("test")
+public class EmailOutboxIntegrationTest extends MongoTestContainer {
+
+    // Local SMTP server standing in for the real one
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @DynamicPropertySource
+    static void setMailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", () -> ServerSetupTest.SMTP.getPort());
+        registry.add("spring.mail.username", () -> "noreply@example.com");
+        registry.add("spring.mail.properties.mail.smtp.auth", () -> "false");
+        registry.add("spring.mail.properties.mail.smtp.starttls.enable", () -> "false");
+    }
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxWorker outboxWorker;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(OutboxEmail.class);
+    }
+
+    @Test
+    void processBatch_SendsQueuedEmailsInOneBatch() {
+        // Arrange
+        emailService.sendSimpleEmail("alice@example.com", "Hello", "Plain text");
+        emailService.sendHtmlEmail("bob@example.com", "Reset", "email/password-reset",
+                Map.of("resetLink", "http://localhost:3000/reset-password?token=abc"));
+        Instant linkExpiresAt = Instant.now().plus(Duration.ofMinutes(30)).truncatedTo(ChronoUnit.MILLIS);
+        emailService.sendPasswordResetEmail("carol@example.com", "http://localhost:3000/reset-password?token=def",
+                linkExpiresAt);
+
+        // Act
+        int processed = outboxWorker.processBatch();
+
+        // Assert
+        assertEquals(3, processed);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertTrue(Arrays.stream(received).anyMatch(message -> GreenMailUtil.getBody(message).contains("token=abc")));
+        List<OutboxEmail> outbox = mongoTemplate.findAll(OutboxEmail.class);
+        assertTrue(outbox.stream().allMatch(email -> email.getStatus() == OutboxEmail.Status.SENT
+                && email.getAttempts() == 1 && email.getExpireAt() != null && email.getClaimId() == null));
+        // Reset links and other content are not kept once sent
+        assertTrue(outbox.stream().allMatch(email -> email.getText() == null && email.getVariables() == null));
+        OutboxEmail reset = outbox.stream().filter(email -> email.getTo().equals("carol@example.com")).findFirst().orElseThrow();
+        assertEquals(linkExpiresAt, reset.getExpireAt());
+        assertEquals(0, outboxWorker.processBatch());
+    }
+
+    @Test
+    void processBatch_SchedulesRetryWhenSmtpIsDown() {
+        // Arrange
+        greenMail.stop();
+        emailService.sendSimpleEmail("alice@example.com", "Hello", "Plain text");
+
+        // Act
+        int processed = outboxWorker.processBatch();
+
+        // Assert
+        assertEquals(1, processed);
+        OutboxEmail email = mongoTemplate.findAll(OutboxEmail.class).get(0);
+        assertEquals(OutboxEmail.Status.PENDING, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getLastError());
+        assertTrue(email.getNextAttemptAt().isAfter(Instant.now()));
+        // Not due yet
+        assertEquals(0, outboxWorker.processBatch());
+    }
+
+    @Test
+    void processBatch_DeadLettersEmailThatCannotBeRendered() {
+        // Arrange
+        emailService.sendHtmlEmail("alice@example.com", "Broken", "email/does-not-exist", Map.of());
+        emailService.sendSimpleEmail("bob@example.com", "Hello", "Plain text");
+
+        // Act
+        outboxWorker.processBatch();
+
+        // Assert
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        OutboxEmail broken = mongoTemplate.findAll(OutboxEmail.class).stream()
+                .filter(email -> email.getTo().equals("alice@example.com"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(OutboxEmail.Status.DEAD, broken.getStatus());
+        assertNotNull(broken.getLastError());
+        assertNull(broken.getVariables());
+        assertNotNull(broken.getExpireAt());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmailTemplateRendererTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateRendererTest.class);
+
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new EmailTemplateRenderer(false);
+    }
+
+    @Test
+    void preload_LoadsEmailTemplates() {
+        // Act
+        int loaded = renderer.preload();
+
+        // Assert
+        assertTrue(loaded >= 1);
+    }
+
+    @Test
+    void renderAll_RendersEachRecipientWithItsOwnVariables() {
+        // Arrange
+        List<Map<String, Object>> variables = List.of(
+                Map.of("resetLink", "https://example.com/reset-password?token=a&x=1"),
+                Map.of("resetLink", "https://example.com/reset-password?token=b"));
+
+        // Act
+        List<String> rendered = renderer.renderAll(EmailService.PASSWORD_RESET_TEMPLATE, variables);
+
+        // Assert
+        assertEquals(2, rendered.size());
+        assertTrue(rendered.get(0).contains("href=\"https://example.com/reset-password?token=a&amp;x=1\""));
+        assertFalse(rendered.get(0).contains("token=b"));
+        assertTrue(rendered.get(1).contains("token=b"));
+        assertEquals(renderer.render(EmailService.PASSWORD_RESET_TEMPLATE, variables.get(1)), rendered.get(1));
+    }
+
+    @Test
+    void renderAll_FailsForUnknownTemplate() {
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> renderer.render("email/does-not-exist", Map.of()));
+    }
+
+    // Throughput of the password reset email, one at a time and in bulk; the numbers are logged
+    @Test
+    void benchmark_PasswordResetRendersPerSecond() {
+        // Arrange
+        int recipients = 5000;
+        List<Map<String, Object>> variables = new ArrayList<>(recipients);
+        for (int i = 0; i < recipients; i++) {
+            variables.add(Map.of("resetLink", "https://example.com/reset-password?token=" + i));
+        }
+        // Warm up the parsed template cache and the JIT
+        renderer.renderAll(EmailService.PASSWORD_RESET_TEMPLATE, variables);
+
+        // Act
+        long start = System.nanoTime();
+        for (Map<String, Object> recipientVariables : variables) {
+            renderer.render(EmailService.PASSWORD_RESET_TEMPLATE, recipientVariables);
+        }
+        long singleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<String> rendered = renderer.renderAll(EmailService.PASSWORD_RESET_TEMPLATE, variables);
+        long bulkNanos = System.nanoTime() - start;
+
+        // Assert
+        assertEquals(recipients, rendered.size());
+        assertTrue(rendered.get(recipients - 1).contains("token=" + (recipients - 1)));
+        logger.info("Password reset template: {} renders/s one at a time, {} renders/s in bulk",
+                recipients * 1_000_000_000L / Math.max(1, singleNanos),
+                recipients * 1_000_000_000L / Math.max(1, bulkNanos));
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.config.MongoTestContainer;
+import com.example.spring_boot_mongodb_docker.model.FileBlob;
+import com.example.spring_boot_mongodb_docker.model.FileDocument;
+import com.example.spring_boot_mongodb_docker.repository.FileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.files.list.limit=3")
+@ActiveProfiles("test")
+@WithMockUser(username = "uploader")
+public class FileServiceIntegrationTest extends MongoTestContainer {
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private FileBlobSweeper fileBlobSweeper;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        fileRepository.deleteAll();
+        mongoTemplate.dropCollection(FileBlob.class);
+        mongoTemplate.dropCollection("fs.files");
+        mongoTemplate.dropCollection("fs.chunks");
+    }
+
+    @Test
+    void getAllFiles_ExcludesInlineContent() {
+        // Arrange
+        FileDocument legacy = new FileDocument("legacy.txt", "text/plain", 5, "hello".getBytes(), "uploader");
+        fileRepository.save(legacy);
+
+        // Act
+        List<FileDocument> files = fileService.getAllFiles(null, null, null);
+
+        // Assert
+        assertEquals(1, files.size());
+        assertEquals("legacy.txt", files.get(0).getFilename());
+        assertEquals(5, files.get(0).getSize());
+        assertNull(files.get(0).getData());
+        // The content is still stored, just not listed
+        assertArrayEquals("hello".getBytes(), fileRepository.findById(legacy.getId()).orElseThrow().getData());
+    }
+
+    @Test
+    void getAllFiles_ReturnsAtMostTheListLimitNewestFirst() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            FileDocument file = new FileDocument("file" + i + ".txt", "text/plain", 1, new byte[]{1}, "uploader");
+            file.setUploadDate(new Date(1_000_000L * (i + 1)));
+            fileRepository.save(file);
+        }
+
+        // Act
+        List<FileDocument> files = fileService.getAllFiles(null, null, null);
+
+        // Assert
+        assertEquals(List.of("file4.txt", "file3.txt", "file2.txt"),
+                files.stream().map(FileDocument::getFilename).toList());
+    }
+
+    @Test
+    void storeFile_SameContentSharesOneBlob() throws Exception {
+        // Act
+        String first = fileService.storeFile(file("a.txt", "shared content"));
+        String second = fileService.storeFile(file("b.txt", "shared content"));
+
+        // Assert
+        FileDocument firstDocument = fileService.getFile(first);
+        FileDocument secondDocument = fileService.getFile(second);
+        assertEquals(firstDocument.getGridFsId(), secondDocument.getGridFsId());
+        assertEquals(firstDocument.getContentHash(), secondDocument.getContentHash());
+        assertEquals(2, blob(firstDocument).getRefCount());
+        assertEquals(1, gridFsFileCount());
+    }
+
+    @Test
+    void deleteFile_KeepsBlobStillReferencedByAnotherFile() throws Exception {
+        // Arrange
+        String first = fileService.storeFile(file("a.txt", "shared content"));
+        String second = fileService.storeFile(file("b.txt", "shared content"));
+
+        // Act
+        assertTrue(fileService.deleteFile(first));
+        fileBlobSweeper.sweep();
+
+        // Assert
+        FileDocument remaining = fileService.getFile(second);
+        assertEquals(1, blob(remaining).getRefCount());
+        assertEquals(1, gridFsFileCount());
+        assertEquals("shared content", content(remaining));
+    }
+
+    @Test
+    void sweep_RemovesOnlyUnreferencedBlobs() throws Exception {
+        // Arrange
+        String deleted = fileService.storeFile(file("gone.txt", "deleted content"));
+        String kept = fileService.storeFile(file("kept.txt", "kept content"));
+        String deletedHash = fileService.getFile(deleted).getContentHash();
+        fileService.deleteFile(deleted);
+
+        // Act
+        fileBlobSweeper.sweep();
+
+        // Assert
+        assertNull(mongoTemplate.findById(deletedHash, FileBlob.class));
+        FileDocument keptDocument = fileService.getFile(kept);
+        assertEquals(1, blob(keptDocument).getRefCount());
+        assertEquals(1, gridFsFileCount());
+        assertEquals("kept content", content(keptDocument));
+    }
+
+    @Test
+    void sweep_LeavesBlobReuploadedAfterItsLastDelete() throws Exception {
+        // Arrange: the only reference is dropped, then the same content is uploaded again
+        // before the sweep runs
+        fileService.deleteFile(fileService.storeFile(file("a.txt", "shared content")));
+        String reuploaded = fileService.storeFile(file("b.txt", "shared content"));
+
+        // Act
+        fileBlobSweeper.sweep();
+
+        // Assert
+        FileDocument document = fileService.getFile(reuploaded);
+        assertEquals(1, blob(document).getRefCount());
+        assertEquals(1, gridFsFileCount());
+        assertEquals("shared content", content(document));
+    }
+
+    @Test
+    void storeFile_ConcurrentUploadsOfSameContentKeepOneGridFsFile() throws Exception {
+        // Arrange
+        int uploads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> ids = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < uploads; i++) {
+                String filename = "copy" + i + ".txt";
+                ids.add(executor.submit(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("uploader", null));
+                    try {
+                        start.await();
+                        return fileService.storeFile(file(filename, "shared content"));
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<String> id : ids) {
+                id.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert: the losers of the race removed the GridFS files they stored
+        FileDocument document = fileService.getFile(ids.get(0).get());
+        assertEquals(uploads, blob(document).getRefCount());
+        assertEquals(1, gridFsFileCount());
+        for (Future<String> id : ids) {
+            assertEquals(document.getGridFsId(), fileService.getFile(id.get()).getGridFsId());
+        }
+    }
+
+    private FileBlob blob(FileDocument fileDocument) {
+        return mongoTemplate.findById(fileDocument.getContentHash(), FileBlob.class);
+    }
+
+    private long gridFsFileCount() {
+        return mongoTemplate.getCollection("fs.files").countDocuments();
+    }
+
+    private String content(FileDocument fileDocument) throws IOException {
+        try (InputStream inputStream = fileService.getFileContent(fileDocument).getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static MockMultipartFile file(String filename, String content) {
+        return new MockMultipartFile("file", filename, "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
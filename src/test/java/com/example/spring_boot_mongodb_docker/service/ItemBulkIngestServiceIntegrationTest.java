@@ -0,0 +1,130 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.config.MongoTestContainer;
+import com.example.spring_boot_mongodb_docker.model.BulkIngestResult;
+import com.example.spring_boot_mongodb_docker.model.Item;
+import com.example.spring_boot_mongodb_docker.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ItemBulkIngestServiceIntegrationTest extends MongoTestContainer {
+
+    @Autowired
+    private ItemBulkIngestService itemBulkIngestService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @MockBean
+    private ItemCacheInvalidator itemCacheInvalidator;
+
+    @MockBean
+    private ItemSuggestIndex itemSuggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    void ingest_CountsInsertsUpsertsAndReplacements() throws IOException {
+        // Arrange
+        Item existing = itemRepository.save(new Item("Old Name", "kept", 1.0, 1));
+        String payload = "{\"name\": \"New\", \"price\": 1.5, \"quantity\": 1}\n"
+                + "{\"id\": \"" + existing.getId() + "\", \"name\": \"Renamed\", \"price\": 2.5, \"quantity\": 2, \"version\": 0}\n"
+                + "{\"id\": \"bulk-1\", \"name\": \"Upserted\", \"price\": 3.5, \"quantity\": 3, \"version\": 42}\n";
+
+        // Act
+        BulkIngestResult result = itemBulkIngestService.ingest(stream(payload), 2);
+
+        // Assert
+        assertEquals(3, result.getReceived());
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpserted());
+        assertEquals(1, result.getReplaced());
+        assertEquals(2, result.getBatches().size());
+        assertFalse(result.hasErrors());
+
+        Item renamed = itemRepository.findById(existing.getId()).orElseThrow();
+        assertEquals("Renamed", renamed.getName());
+        // The version is bumped, never taken from the payload
+        assertEquals(existing.getVersion() + 1, renamed.getVersion());
+        assertEquals(1L, itemRepository.findById("bulk-1").orElseThrow().getVersion());
+        assertEquals(3, itemRepository.count());
+
+        // Replacements may have changed any cached item or page
+        verify(itemCacheInvalidator).invalidateAll();
+        verify(itemSuggestIndex).rebuildEverywhere();
+    }
+
+    @Test
+    void ingest_StopsAtMalformedDocumentKeepingEarlierBatches() throws IOException {
+        // Arrange
+        String payload = "{\"name\": \"First\", \"price\": 1, \"quantity\": 1}\n"
+                + "{\"name\": oops}\n"
+                + "{\"name\": \"Never read\", \"price\": 1, \"quantity\": 1}\n";
+
+        // Act
+        BulkIngestResult result = itemBulkIngestService.ingest(stream(payload), 1);
+
+        // Assert
+        assertEquals(1, result.getReceived());
+        assertEquals(1, result.getInserted());
+        assertNotNull(result.getParseError());
+        assertTrue(result.hasErrors());
+        assertEquals(1, itemRepository.count());
+        verify(itemCacheInvalidator).onItemCreated(null);
+        verify(itemCacheInvalidator, never()).invalidateAll();
+        verify(itemSuggestIndex).rebuildEverywhere();
+    }
+
+    @Test
+    void ingest_InvalidatesCachesWhenTheClientAborts() {
+        // Arrange
+        InputStream aborted = new SequenceInputStream(
+                stream("{\"name\": \"Written\", \"price\": 1, \"quantity\": 1}\n"),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Connection reset by peer");
+                    }
+                });
+
+        // Act
+        assertThrows(IOException.class, () -> itemBulkIngestService.ingest(aborted, 1));
+
+        // Assert
+        assertEquals(1, itemRepository.count());
+        verify(itemCacheInvalidator).onItemCreated(null);
+        verify(itemSuggestIndex).rebuildEverywhere();
+    }
+
+    @Test
+    void ingest_EmptyPayloadTouchesNoCache() throws IOException {
+        // Act
+        BulkIngestResult result = itemBulkIngestService.ingest(stream("[]"), null);
+
+        // Assert
+        assertEquals(0, result.getReceived());
+        verifyNoInteractions(itemCacheInvalidator, itemSuggestIndex);
+    }
+
+    private static InputStream stream(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
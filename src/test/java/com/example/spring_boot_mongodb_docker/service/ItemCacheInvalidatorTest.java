@@ -0,0 +1,172 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemCacheInvalidatorTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private Cache itemsCache;
+
+    @Mock
+    private Cache pagesCache;
+
+    private ItemCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(cacheManager.getCache(ItemCacheInvalidator.ITEMS_CACHE)).thenReturn(itemsCache);
+        lenient().when(cacheManager.getCache(ItemCacheInvalidator.PAGES_CACHE)).thenReturn(pagesCache);
+
+        invalidator = new ItemCacheInvalidator(cacheManager, redisTemplate, listenerContainer,
+                "itemPages:generation", Duration.ofMinutes(10), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testUpdateOfNonSortFieldEvictsOnlyTaggedPages() {
+        // Arrange
+        Item before = item("1", "Widget", 10);
+        Item after = item("1", "Widget", 9);
+        when(hashOperations.increment(anyString(), eq("quantity"), eq(1L))).thenReturn(1L);
+        when(setOperations.members("itemPages:tags:1")).thenReturn(Set.of("0.0_0_10_name_asc"));
+
+        // Act
+        invalidator.onItemUpdated(before, after);
+
+        // Assert
+        verify(hashOperations, times(1)).increment(anyString(), eq("quantity"), eq(1L));
+        verify(hashOperations, never()).increment(anyString(), eq("name"), anyLong());
+        verify(hashOperations, never()).increment(anyString(), eq("*"), anyLong());
+        verify(valueOperations).increment("itemPages:updates");
+        verify(pagesCache, times(1)).evict("0.0_0_10_name_asc");
+        verify(pagesCache, never()).clear();
+        verify(itemsCache, never()).clear();
+    }
+
+    @Test
+    void testCreateBumpsGlobalGenerationWithoutTouchingItems() {
+        // Arrange
+        when(hashOperations.get(anyString(), any())).thenReturn(null);
+        String keyBefore = invalidator.pageKey(0, 10, "name", Sort.Direction.ASC);
+        when(hashOperations.increment(anyString(), eq("*"), eq(1L))).thenReturn(1L);
+
+        // Act
+        invalidator.onItemCreated(item("2", "Gadget", 1));
+        String keyAfter = invalidator.pageKey(0, 10, "name", Sort.Direction.ASC);
+
+        // Assert
+        assertNotEquals(keyBefore, keyAfter);
+        verifyNoInteractions(itemsCache);
+        verify(pagesCache, never()).clear();
+    }
+
+    @Test
+    void testGenerationMessageTakesRedisValueEvenIfLower() {
+        // Arrange
+        when(hashOperations.get(anyString(), any())).thenReturn(null);
+        when(hashOperations.get(anyString(), eq("*"))).thenReturn("5", "1");
+        String keyBefore = invalidator.pageKey(0, 10, "name", Sort.Direction.ASC);
+
+        // Act
+        // Counters restarted in Redis, e.g. after a flush
+        invalidator.onMessage(new DefaultMessage("itemPages:generation".getBytes(StandardCharsets.UTF_8),
+                "*=1".getBytes(StandardCharsets.UTF_8)), null);
+        String keyAfter = invalidator.pageKey(0, 10, "name", Sort.Direction.ASC);
+
+        // Assert
+        assertEquals("0.5.0_0_10_name_ASC", keyBefore);
+        assertEquals("0.1.0_0_10_name_ASC", keyAfter);
+    }
+
+    @Test
+    void testPageKeyRejectsUnknownSortFields() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> invalidator.pageKey(0, 10, "epoch", Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class, () -> invalidator.pageKey(0, 10, "junk", Sort.Direction.ASC));
+        verifyNoInteractions(hashOperations);
+    }
+
+    @Test
+    void testCachePageDropsPageWhenAnUpdateRacedTheRead() {
+        // Arrange
+        // The update landed after the page was read but before it was tagged
+        when(valueOperations.get("itemPages:updates")).thenReturn("8");
+        Map<String, Object> page = Map.of("content", List.of());
+
+        // Act
+        invalidator.cachePage("key", List.of(item("1", "Widget", 1)), page, 7);
+
+        // Assert
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(pagesCache).put("key", page);
+        verify(pagesCache).evict("key");
+    }
+
+    @Test
+    void testCachePageKeepsPageWithoutConcurrentUpdates() {
+        // Arrange
+        when(valueOperations.get("itemPages:updates")).thenReturn("7");
+        Map<String, Object> page = Map.of("content", List.of());
+
+        // Act
+        invalidator.cachePage("key", List.of(item("1", "Widget", 1)), page, 7);
+
+        // Assert
+        verify(pagesCache).put("key", page);
+        verify(pagesCache, never()).evict(anyString());
+    }
+
+    private Item item(String id, String name, int quantity) {
+        Item item = new Item(name, "description", 9.99, quantity);
+        item.setId(id);
+        return item;
+    }
+}
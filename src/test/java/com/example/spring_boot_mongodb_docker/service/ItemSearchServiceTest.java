@@ -0,0 +1,133 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.config.IndexRegistry;
+import com.example.spring_boot_mongodb_docker.config.MongoTestContainer;
+import com.example.spring_boot_mongodb_docker.model.Item;
+import com.example.spring_boot_mongodb_docker.repository.ItemRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ItemSearchServiceTest extends MongoTestContainer {
+
+    @Autowired
+    private ItemSearchService itemSearchService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private IndexRegistry indexRegistry;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        assertEquals(0, indexRegistry.ensureIndexes());
+
+        itemRepository.saveAll(List.of(
+                new Item("Gaming Laptop", "Fast laptop with a large screen", 1499.0, 3),
+                new Item("Laptop Sleeve", "Protective sleeve", 25.0, 40),
+                new Item("Desk Lamp", "Lamp for a laptop desk setup", 35.0, 12),
+                new Item("Lapel Pin", "Enamel pin", 5.0, 100)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    void searchText_RanksNameMatchesFirst() {
+        // Act
+        Page<Item> result = itemSearchService.searchText("laptop", PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(3, result.getTotalElements());
+        assertEquals("Gaming Laptop", result.getContent().get(0).getName());
+        assertEquals("Desk Lamp", result.getContent().get(2).getName());
+        assertNotNull(result.getContent().get(0).getScore());
+    }
+
+    @Test
+    void searchByPrefix_MatchesStartOfNameIgnoringCase() {
+        // Act
+        Page<Item> result = itemSearchService.searchByPrefix("LAP", PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of("Lapel Pin", "Laptop Sleeve"),
+                result.getContent().stream().map(Item::getName).toList());
+        assertNull(result.getContent().get(0).getScore());
+    }
+
+    @Test
+    void searchByPrefix_MatchesNamesContinuingWithSupplementaryCharacters() {
+        // Arrange: U+1F600 is above U+FFFF, so in UTF-8 order it sorts after "lap" + U+FFFF
+        itemRepository.save(new Item("Lap\uD83D\uDE00 Sticker", "Emoji sticker", 2.0, 50));
+
+        // Act
+        Page<Item> result = itemSearchService.searchByPrefix("lap", PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of("Lapel Pin", "Laptop Sleeve", "Lap\uD83D\uDE00 Sticker"),
+                result.getContent().stream().map(Item::getName).toList());
+    }
+
+    @Test
+    void prefixUpperBound_IncrementsTheLastCodePoint() {
+        assertEquals("lao", ItemSearchService.prefixUpperBound("lan"));
+        assertEquals("la\uD83D\uDE01", ItemSearchService.prefixUpperBound("la\uD83D\uDE00"));
+        assertEquals("la\uE000", ItemSearchService.prefixUpperBound("la\uD7FF"));
+        assertEquals("la\uD800\uDC00", ItemSearchService.prefixUpperBound("la\uFFFF"));
+        assertEquals("lb", ItemSearchService.prefixUpperBound("la\uDBFF\uDFFF"));
+        assertNull(ItemSearchService.prefixUpperBound("\uDBFF\uDFFF"));
+        assertNull(ItemSearchService.prefixUpperBound(""));
+    }
+
+    @Test
+    void searchByPrefix_UsesBoundedIndexScan() {
+        // Arrange
+        String prefix = Item.normalize("Lap");
+        Document filter = new Document("nameLower",
+                new Document("$gte", prefix).append("$lt", ItemSearchService.prefixUpperBound(prefix)));
+
+        // Act
+        Document explain = mongoTemplate.getCollection("items").find(filter)
+                .sort(new Document("nameLower", 1).append("_id", 1)).limit(10).explain();
+
+        // Assert
+        String plan = explain.get("queryPlanner", Document.class).toJson();
+        assertTrue(plan.contains("nameLower_id"), plan);
+        assertFalse(plan.contains("COLLSCAN"), plan);
+        assertFalse(plan.contains("\"SORT\""), plan);
+    }
+
+    @Test
+    void backfillNameLower_SetsFieldOnLegacyItems() {
+        // Arrange
+        mongoTemplate.getCollection("items").insertOne(new Document("name", "Lantern").append("price", 12.0));
+
+        // Act
+        long updated = itemSearchService.backfillNameLower();
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(List.of("Lantern"), itemSearchService.searchByPrefix("lan", PageRequest.of(0, 10))
+                .getContent().stream().map(Item::getName).toList());
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.Item;
+import com.example.spring_boot_mongodb_docker.model.ItemSuggestion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSuggestIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Test
+    void suggest_MatchesWordPrefixesIgnoringCase() {
+        // Arrange
+        ItemSuggestIndex index = loadedIndex(100,
+                item("1", "Gaming Laptop"), item("2", "Laptop Sleeve"), item("3", "Desk Lamp"));
+
+        // Act
+        List<ItemSuggestion> suggestions = index.suggest("LAP", 10);
+
+        // Assert
+        assertEquals(List.of("1", "2"), ids(suggestions));
+        assertEquals(List.of("2"), ids(index.suggest("lap sle", 10)));
+        assertEquals(List.of("1"), ids(index.suggest("lap", 1)));
+        assertTrue(index.suggest("phone", 10).isEmpty());
+    }
+
+    @Test
+    void indexAndRemove_KeepSuggestionsCurrent() {
+        // Arrange
+        ItemSuggestIndex index = loadedIndex(100, item("1", "Gaming Laptop"));
+
+        // Act
+        index.index(item("1", "Gaming Mouse"));
+        index.index(item("2", "Mouse Pad"));
+        index.remove("2");
+
+        // Assert
+        assertTrue(index.suggest("laptop", 10).isEmpty());
+        assertEquals(List.of("1"), ids(index.suggest("mou", 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void refresh_AppliesChangesPublishedByOtherNodes() {
+        // Arrange
+        ItemSuggestIndex index = loadedIndex(100, item("1", "Gaming Laptop"), item("2", "Mouse Pad"));
+        when(mongoTemplate.findOne(any(Query.class), eq(Item.class)))
+                .thenReturn(item("1", "Gaming Mouse"), item("3", "Desk Lamp"), null);
+
+        // Act
+        index.refresh("1");
+        index.refresh("3");
+        // Deleted on the other node
+        index.refresh("2");
+
+        // Assert
+        assertTrue(index.suggest("laptop", 10).isEmpty());
+        assertEquals(List.of("1"), ids(index.suggest("mou", 10)));
+        assertEquals(List.of("3"), ids(index.suggest("desk", 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void indexAndRemove_PublishChangesToOtherNodes() {
+        // Arrange
+        ItemSuggestIndex index = loadedIndex(100);
+
+        // Act
+        index.index(item("1", "Gaming Laptop"));
+        index.remove("1");
+
+        // Assert
+        ArgumentCaptor<Object> messages = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate, times(2)).convertAndSend(eq("items:suggest"), messages.capture());
+        assertTrue(messages.getAllValues().get(0).toString().endsWith(" index 1"));
+        assertTrue(messages.getAllValues().get(1).toString().endsWith(" remove 1"));
+    }
+
+    @Test
+    void suggest_ReturnsNullBeforeLoadAndOverCapacity() {
+        // Arrange
+        ItemSuggestIndex notLoaded = newIndex(100);
+
+        // Act
+        ItemSuggestIndex overCapacity = loadedIndex(2, item("1", "One"), item("2", "Two"), item("3", "Three"));
+
+        // Assert
+        assertNull(notLoaded.suggest("one", 10));
+        assertNull(overCapacity.suggest("one", 10));
+        assertEquals(0, overCapacity.size());
+    }
+
+    @Test
+    void remove_CompactsAfterManyDeletes() {
+        // Arrange
+        ItemSuggestIndex index = loadedIndex(10_000);
+        for (int i = 0; i < 3000; i++) {
+            index.index(item(Integer.toString(i), "Widget " + i));
+        }
+
+        // Act
+        for (int i = 0; i < 2990; i++) {
+            index.remove(Integer.toString(i));
+        }
+
+        // Assert
+        assertEquals(10, index.size());
+        assertEquals(10, index.suggest("widget", 50).size());
+        assertEquals(List.of("2995"), ids(index.suggest("widget 2995", 50)));
+    }
+
+    @Test
+    void rebuild_KeepsServingThePreviousIndexWhileLoading() {
+        // Arrange
+        ItemSuggestIndex index = loadedIndex(100, item("1", "Gaming Laptop"));
+        List<List<String>> duringRebuild = new ArrayList<>();
+        when(mongoTemplate.stream(any(Query.class), eq(Item.class))).thenReturn(
+                Stream.of(item("2", "Laptop Sleeve"), item("3", "Desk Lamp"))
+                        .peek(item -> duringRebuild.add(ids(index.suggest("laptop", 10)))));
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertEquals(List.of(List.of("1"), List.of("1")), duringRebuild);
+        assertEquals(List.of("2"), ids(index.suggest("laptop", 10)));
+        assertEquals(List.of("3"), ids(index.suggest("desk", 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void rebuild_AppliesWritesMadeWhileLoading() {
+        // Arrange
+        ItemSuggestIndex index = loadedIndex(100, item("3", "Desk Lamp"));
+        Item first = item("1", "Gaming Laptop");
+        when(mongoTemplate.stream(any(Query.class), eq(Item.class))).thenReturn(
+                Stream.of(first, item("2", "Old Name"), item("3", "Desk Lamp"))
+                        .peek(item -> {
+                            if (item == first) {
+                                // Written after the stream read these items
+                                index.index(item("2", "Mouse Pad"));
+                                index.remove("3");
+                            }
+                        }));
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertEquals(List.of("1"), ids(index.suggest("laptop", 10)));
+        assertEquals(List.of("2"), ids(index.suggest("mouse", 10)));
+        assertTrue(index.suggest("old", 10).isEmpty());
+        assertTrue(index.suggest("desk", 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void rebuild_FailureKeepsThePreviousIndex() {
+        // Arrange
+        ItemSuggestIndex index = loadedIndex(100, item("1", "Gaming Laptop"));
+        when(mongoTemplate.stream(any(Query.class), eq(Item.class))).thenThrow(new IllegalStateException("down"));
+
+        // Act
+        index.rebuild();
+        index.index(item("2", "Laptop Sleeve"));
+
+        // Assert
+        assertTrue(index.isReady());
+        assertEquals(List.of("1", "2"), ids(index.suggest("laptop", 10)));
+    }
+
+    private ItemSuggestIndex loadedIndex(int maxItems, Item... items) {
+        when(mongoTemplate.stream(any(Query.class), eq(Item.class))).thenReturn(Stream.of(items));
+        ItemSuggestIndex index = newIndex(maxItems);
+        index.rebuild();
+        return index;
+    }
+
+    private ItemSuggestIndex newIndex(int maxItems) {
+        return new ItemSuggestIndex(mongoTemplate, redisTemplate, listenerContainer, "items:suggest", true, maxItems);
+    }
+
+    private static Item item(String id, String name) {
+        Item item = new Item(name, null, 1.0, 1);
+        item.setId(id);
+        return item;
+    }
+
+    private static List<String> ids(List<ItemSuggestion> suggestions) {
+        return suggestions.stream().map(ItemSuggestion::getId).toList();
+    }
+}
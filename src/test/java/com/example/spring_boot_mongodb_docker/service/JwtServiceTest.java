@@ -0,0 +1,85 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = "testSecretKeyThatIsAtLeast32CharactersLong";
+
+    private final UserDetails userDetails = User.withUsername("alice").password("secret").roles("USER").build();
+
+    @Test
+    void parseToken_VerifiesEachTokenOnlyOnce() {
+        // Arrange
+        JwtService jwtService = new JwtService(SECRET, 60_000, true, 100);
+        String token = jwtService.generateToken(userDetails);
+
+        // Act
+        Claims first = jwtService.parseToken(token);
+        Claims second = jwtService.parseToken(token);
+
+        // Assert
+        assertEquals("alice", first.getSubject());
+        assertSame(first, second);
+        assertTrue(jwtService.isTokenValid(token, userDetails));
+    }
+
+    @Test
+    void parseToken_WithCacheDisabled_ParsesEveryTime() {
+        // Arrange
+        JwtService jwtService = new JwtService(SECRET, 60_000, false, 100);
+        String token = jwtService.generateToken(userDetails);
+
+        // Act
+        Claims first = jwtService.parseToken(token);
+        Claims second = jwtService.parseToken(token);
+
+        // Assert
+        assertEquals(first.getSubject(), second.getSubject());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void parseToken_RejectsTamperedToken() {
+        // Arrange
+        JwtService jwtService = new JwtService(SECRET, 60_000, true, 100);
+        String token = jwtService.generateToken(userDetails);
+        jwtService.parseToken(token);
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char first = token.charAt(signatureStart);
+        String tampered = token.substring(0, signatureStart) + (first == 'A' ? 'B' : 'A')
+                + token.substring(signatureStart + 1);
+
+        // Act & Assert
+        assertThrows(SignatureException.class, () -> jwtService.parseToken(tampered));
+    }
+
+    @Test
+    void parseToken_RejectsExpiredToken() {
+        // Arrange
+        JwtService jwtService = new JwtService(SECRET, -1_000, true, 100);
+        String token = jwtService.generateToken(userDetails);
+
+        // Act & Assert
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parseToken(token));
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parseToken(token));
+    }
+
+    @Test
+    void isTokenValid_ReturnsFalseForOtherUser() {
+        // Arrange
+        JwtService jwtService = new JwtService(SECRET, 60_000, true, 100);
+        String token = jwtService.generateToken(userDetails);
+        UserDetails otherUser = User.withUsername("bob").password("secret").roles("USER").build();
+
+        // Act & Assert
+        assertFalse(jwtService.isTokenValid(token, otherUser));
+    }
+}
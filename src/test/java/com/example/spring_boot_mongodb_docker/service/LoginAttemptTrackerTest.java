@@ -0,0 +1,73 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.exception.ThrottledException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginAttemptTrackerTest {
+
+    private static final String CLIENT = "203.0.113.7";
+    private static final String OTHER_CLIENT = "198.51.100.20";
+
+    private LoginAttemptTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new LoginAttemptTracker(3, Duration.ofMinutes(1), Duration.ofMinutes(3), Duration.ofMinutes(15), 1000);
+    }
+
+    @Test
+    void checkAllowed_BlocksAfterFreeAttemptsWithDoublingDelay() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            tracker.recordFailure("alice", CLIENT);
+        }
+        tracker.checkAllowed("alice", CLIENT);
+
+        // Act
+        tracker.recordFailure("alice", CLIENT);
+        ThrottledException first = assertThrows(ThrottledException.class, () -> tracker.checkAllowed("alice", CLIENT));
+        tracker.recordFailure("alice", CLIENT);
+        ThrottledException second = assertThrows(ThrottledException.class, () -> tracker.checkAllowed("alice", CLIENT));
+        tracker.recordFailure("alice", CLIENT);
+        ThrottledException capped = assertThrows(ThrottledException.class, () -> tracker.checkAllowed("alice", CLIENT));
+
+        // Assert
+        assertTrue(first.getRetryAfterSeconds() > 55 && first.getRetryAfterSeconds() <= 60);
+        assertTrue(second.getRetryAfterSeconds() > 115 && second.getRetryAfterSeconds() <= 120);
+        assertTrue(capped.getRetryAfterSeconds() > 175 && capped.getRetryAfterSeconds() <= 180);
+        tracker.checkAllowed("bob", CLIENT);
+    }
+
+    @Test
+    void recordSuccess_ResetsFailures() {
+        // Arrange
+        tracker.recordFailure("alice", CLIENT);
+        assertTrue(tracker.hasRecentFailures("alice"));
+
+        // Act
+        tracker.recordSuccess("alice", CLIENT);
+
+        // Assert
+        assertFalse(tracker.hasRecentFailures("alice"));
+        tracker.checkAllowed("alice", CLIENT);
+    }
+
+    @Test
+    void checkAllowed_FailuresFromOneClientDoNotBlockOthers() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            tracker.recordFailure("alice", CLIENT);
+        }
+
+        // Act & Assert
+        assertThrows(ThrottledException.class, () -> tracker.checkAllowed("alice", CLIENT));
+        tracker.checkAllowed("alice", OTHER_CLIENT);
+        // Logins of the user from elsewhere are only deprioritised
+        assertTrue(tracker.hasRecentFailures("alice"));
+    }
+}
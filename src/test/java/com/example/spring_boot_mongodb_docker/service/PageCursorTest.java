@@ -0,0 +1,39 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageCursorTest {
+
+    @Test
+    void testRoundTripPreservesValueTypes() {
+        Object[] values = {"Widget", 42, 42L, 19.99, true, new Date(1700000000000L), null};
+
+        for (Object value : values) {
+            String token = new PageCursor("name", "ASC", value, "65a1b2c3d4e5f6a7b8c9d0e1").encode();
+            PageCursor decoded = PageCursor.decode(token);
+
+            assertEquals("name", decoded.getSortBy());
+            assertEquals("ASC", decoded.getDirection());
+            assertEquals(value, decoded.getSortValue());
+            assertEquals("65a1b2c3d4e5f6a7b8c9d0e1", decoded.getId());
+        }
+    }
+
+    @Test
+    void testTokenIsUrlSafe() {
+        String token = new PageCursor("name", "DESC", "a/b+c?d=e", "1").encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testMalformedTokenIsRejected() {
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("not a cursor!"));
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("Zm9v"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.config.MetricsConfig;
+import com.example.spring_boot_mongodb_docker.model.PasswordResetToken;
+import com.example.spring_boot_mongodb_docker.repository.PasswordResetTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PasswordResetServiceTest {
+
+    @Mock
+    private PasswordResetTokenRepository tokenRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private PasswordResetService passwordResetService;
+
+    @BeforeEach
+    void setUp() {
+        MetricsConfig metricsConfig = new MetricsConfig(new SimpleMeterRegistry(),
+                new Duration[]{Duration.ofMillis(10)}, Duration.ofMinutes(2));
+        passwordResetService = new PasswordResetService(tokenRepository, mongoTemplate, metricsConfig, Duration.ofMinutes(30));
+    }
+
+    @Test
+    void createToken_StoresOnlyTheHash() {
+        // Arrange
+        ArgumentCaptor<PasswordResetToken> stored = ArgumentCaptor.forClass(PasswordResetToken.class);
+        when(tokenRepository.insert(stored.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        PasswordResetService.IssuedToken issued = passwordResetService.createToken("alice");
+        String token = issued.token();
+
+        // Assert
+        verify(tokenRepository).deleteByUsername("alice");
+        PasswordResetToken resetToken = stored.getValue();
+        assertEquals("alice", resetToken.getUsername());
+        assertNotEquals(token, resetToken.getTokenHash());
+        assertEquals(PasswordResetService.hash(token), resetToken.getTokenHash());
+        assertTrue(resetToken.getExpiryDate().isAfter(Instant.now().plus(Duration.ofMinutes(29))));
+        assertEquals(resetToken.getExpiryDate(), issued.expiresAt());
+        assertNotEquals(token, passwordResetService.createToken("alice").token());
+    }
+
+    @Test
+    void redeem_RemovesUnexpiredTokenByHash() {
+        // Arrange
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.findAndRemove(query.capture(), eq(PasswordResetToken.class)))
+                .thenReturn(new PasswordResetToken("hash", "alice", Instant.now().plusSeconds(60)));
+
+        // Act
+        Optional<String> username = passwordResetService.redeem("raw-token");
+
+        // Assert
+        assertEquals(Optional.of("alice"), username);
+        assertEquals(PasswordResetService.hash("raw-token"), query.getValue().getQueryObject().get("tokenHash"));
+        assertNotNull(query.getValue().getQueryObject().get("expiryDate"));
+    }
+
+    @Test
+    void redeem_UnknownOrUsedToken_ReturnsEmpty() {
+        // Arrange
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(PasswordResetToken.class))).thenReturn(null);
+
+        // Act & Assert
+        assertTrue(passwordResetService.redeem("raw-token").isEmpty());
+        assertTrue(passwordResetService.redeem(null).isEmpty());
+    }
+}
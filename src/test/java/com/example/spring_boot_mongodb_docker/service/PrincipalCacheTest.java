@@ -0,0 +1,152 @@
+package com.example.spring_boot_mongodb_docker.service;
+
+import com.example.spring_boot_mongodb_docker.model.User;
+import com.example.spring_boot_mongodb_docker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PrincipalCacheTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        principalCache = new PrincipalCache(userDetailsService, userRepository, redisTemplate, listenerContainer,
+                "auth:revocations", 100, Duration.ofMinutes(5), 86400000);
+    }
+
+    @Test
+    void isCurrent_UsesMongoVersionWithoutRevocationInRedis() {
+        // Arrange
+        User user = new User("alice", "password", "alice@example.com");
+        user.setSecurityVersion(2);
+        when(valueOperations.get("auth:security-version:alice")).thenReturn(null);
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+
+        // Act & Assert
+        assertFalse(principalCache.isCurrent("alice", 1));
+        assertTrue(principalCache.isCurrent("alice", 2));
+        verify(valueOperations, times(1)).get(anyString());
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void isCurrent_RejectsUnknownUserWithoutCachingIt() {
+        // Arrange
+        when(valueOperations.get("auth:security-version:ghost")).thenReturn(null);
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertFalse(principalCache.isCurrent("ghost", 0));
+        assertFalse(principalCache.isCurrent("ghost", 0));
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+
+    @Test
+    void revoke_RejectsOlderTokensAndPublishes() {
+        // Act
+        principalCache.revoke("alice", 3);
+
+        // Assert
+        assertFalse(principalCache.isCurrent("alice", 2));
+        assertTrue(principalCache.isCurrent("alice", 3));
+        verify(valueOperations).set("auth:security-version:alice", "3", Duration.ofMillis(86400000));
+        verify(redisTemplate).convertAndSend("auth:revocations", "alice=3");
+    }
+
+    @Test
+    void onMessage_AppliesRevocationFromOtherNode() {
+        // Arrange
+        when(valueOperations.get("auth:security-version:alice")).thenReturn("1");
+        assertTrue(principalCache.isCurrent("alice", 1));
+
+        // Act
+        principalCache.onMessage(new DefaultMessage("auth:revocations".getBytes(StandardCharsets.UTF_8),
+                "alice=2".getBytes(StandardCharsets.UTF_8)), null);
+
+        // Assert
+        assertFalse(principalCache.isCurrent("alice", 1));
+    }
+
+    @Test
+    void isCurrent_FallsBackToMongoWhenRedisFails() {
+        // Arrange
+        User user = new User("alice", "password", "alice@example.com");
+        user.setSecurityVersion(4);
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("Redis down"));
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+
+        // Act & Assert
+        assertFalse(principalCache.isCurrent("alice", 3));
+        assertTrue(principalCache.isCurrent("alice", 4));
+    }
+
+    @Test
+    void revoke_RetriesWhenRedisFailsAndRemovesStaleKey() {
+        // Arrange
+        doThrow(new RuntimeException("Redis down")).doNothing()
+                .when(valueOperations).set("auth:security-version:alice", "3", Duration.ofMillis(86400000));
+
+        // Act
+        principalCache.revoke("alice", 3);
+        principalCache.retryUnpublishedRevocations();
+        principalCache.retryUnpublishedRevocations();
+
+        // Assert
+        verify(redisTemplate).delete("auth:security-version:alice");
+        verify(valueOperations, times(2)).set("auth:security-version:alice", "3", Duration.ofMillis(86400000));
+        verify(redisTemplate, times(1)).convertAndSend("auth:revocations", "alice=3");
+        assertFalse(principalCache.isCurrent("alice", 2));
+    }
+
+    @Test
+    void revokedVersion_LetsReRegisteredUserStartAboveDeletedUsersTokens() {
+        // Arrange
+        principalCache.revoke("alice", 5);
+        when(valueOperations.get("auth:security-version:alice")).thenReturn("5");
+        when(valueOperations.get("auth:security-version:bob")).thenReturn(null);
+
+        // Act
+        long aliceVersion = principalCache.revokedVersion("alice");
+
+        // Assert
+        assertEquals(5, aliceVersion);
+        assertTrue(principalCache.isCurrent("alice", aliceVersion));
+        assertFalse(principalCache.isCurrent("alice", 4));
+        assertEquals(0, principalCache.revokedVersion("bob"));
+    }
+}